@@ -0,0 +1,77 @@
+package com.weatherapp.myweatherapp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapp.myweatherapp.model.CityInfo;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Builds Visual Crossing timeline payloads shaped like the real API response, including the
+ * hourly data, stations and alerts sections that CityInfo does not bind.
+ */
+public final class TimelineFixtures {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private TimelineFixtures() {
+  }
+
+  /**
+   * Builds a full 15-day timeline response for the given city.
+   *
+   * @param city The resolved address to report
+   * @param conditions The current conditions description
+   * @return The response body as JSON
+   */
+  public static String timelineJson(String city, String conditions) {
+    StringBuilder json = new StringBuilder(64 * 1024);
+    json.append("{\"queryCost\":1,\"latitude\":51.5064,\"longitude\":-0.12721,")
+            .append("\"resolvedAddress\":\"").append(city).append(", England, United Kingdom\",")
+            .append("\"address\":\"").append(city).append("\",\"timezone\":\"Europe/London\",\"tzoffset\":1.0,")
+            .append("\"description\":\"Similar temperatures continuing with a chance of rain multiple days.\",")
+            .append("\"days\":[");
+    for (int day = 0; day < 15; day++) {
+      if (day > 0) {
+        json.append(',');
+      }
+      json.append("{\"datetime\":\"2024-06-").append(String.format("%02d", day + 1)).append("\",")
+              .append("\"datetimeEpoch\":").append(1717196400L + day * 86400L).append(',')
+              .append("\"tempmax\":21.4,\"tempmin\":12.1,\"temp\":16.5,\"feelslike\":16.5,")
+              .append("\"humidity\":71.2,\"precip\":0.4,\"precipprob\":35.0,\"windspeed\":18.4,")
+              .append("\"sunrise\":\"04:43:11\",\"sunset\":\"21:21:32\",")
+              .append("\"conditions\":\"Rain, Partially cloudy\",")
+              .append("\"description\":\"Partly cloudy throughout the day with rain.\",")
+              .append("\"hours\":[");
+      for (int hour = 0; hour < 24; hour++) {
+        if (hour > 0) {
+          json.append(',');
+        }
+        json.append("{\"datetime\":\"").append(String.format("%02d", hour)).append(":00:00\",")
+                .append("\"temp\":").append(12 + hour % 9).append(".3,\"feelslike\":14.1,\"humidity\":73.5,")
+                .append("\"precip\":0.0,\"windspeed\":12.2,\"winddir\":240.0,\"pressure\":1014.0,")
+                .append("\"cloudcover\":55.2,\"conditions\":\"Partially cloudy\",\"icon\":\"partly-cloudy-day\",")
+                .append("\"stations\":[\"EGLC\",\"EGLL\",\"D5621\"],\"source\":\"obs\"}");
+      }
+      json.append("]}");
+    }
+    json.append("],\"alerts\":[{\"event\":\"Yellow warning\",\"headline\":\"Thunderstorms\",")
+            .append("\"description\":\"Thunderstorms may cause travel disruption.\"}],")
+            .append("\"stations\":{\"EGLL\":{\"distance\":21462.0,\"latitude\":51.48,\"longitude\":-0.45,")
+            .append("\"useCount\":0,\"id\":\"EGLL\",\"name\":\"EGLL\",\"quality\":50}},")
+            .append("\"currentConditions\":{\"datetime\":\"12:00:00\",\"temp\":17.2,\"feelslike\":17.2,")
+            .append("\"humidity\":68.4,\"sunrise\":\"04:43:11\",\"sunset\":\"21:21:32\",")
+            .append("\"conditions\":\"").append(conditions).append("\"}}");
+    return json.toString();
+  }
+
+  /**
+   * Binds a full timeline response for the given city into a CityInfo.
+   */
+  public static CityInfo cityInfo(String city, String conditions) {
+    try {
+      return MAPPER.readValue(timelineJson(city, conditions), CityInfo.class);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
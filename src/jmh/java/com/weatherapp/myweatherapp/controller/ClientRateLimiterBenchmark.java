@@ -0,0 +1,46 @@
+package com.weatherapp.myweatherapp.controller;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures what the per-client rate limit costs on the request path, for a client within its
+ * limit and for one being refused. Run with -t 4 to see threads contending for one client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClientRateLimiterBenchmark {
+
+  /** Refills faster than it can be called, so every request is admitted */
+  private ClientRateLimiter generous;
+  /** The default rate, with a client that has spent its burst */
+  private ClientRateLimiter strict;
+
+  @Setup
+  public void setUp() {
+    generous = new ClientRateLimiter(1e9, 1_000_000, 10_000, System::nanoTime);
+    strict = new ClientRateLimiter(10, 20, 10_000, System::nanoTime);
+    for (int i = 0; i < 1000; i++) {
+      generous.tryAcquire("ip:192.0.2." + i, 1);
+      strict.tryAcquire("ip:192.0.2." + i, 1);
+    }
+    strict.tryAcquire("key:noisy", 20);
+  }
+
+  @Benchmark
+  public long admittedClient() {
+    return generous.tryAcquire("ip:192.0.2.42", 1);
+  }
+
+  @Benchmark
+  public long refusedClient() {
+    return strict.tryAcquire("key:noisy", 1);
+  }
+}
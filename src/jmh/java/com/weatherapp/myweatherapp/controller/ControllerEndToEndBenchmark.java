@@ -0,0 +1,98 @@
+package com.weatherapp.myweatherapp.controller;
+
+import com.weatherapp.myweatherapp.TimelineFixtures;
+import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import com.weatherapp.myweatherapp.repository.VisualcrossingRepository;
+import com.weatherapp.myweatherapp.service.CityCanonicalizer;
+import com.weatherapp.myweatherapp.service.CityPopularity;
+import com.weatherapp.myweatherapp.service.ForecastCache;
+import com.weatherapp.myweatherapp.service.WeatherMetrics;
+import com.weatherapp.myweatherapp.service.WeatherService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Invokes the controller endpoints end to end against a stubbed repository that returns
+ * pre-bound forecasts, isolating the application's own overhead from network time.
+ * A cache TTL of zero forces every lookup through the service to the repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ControllerEndToEndBenchmark {
+
+  @Param({"0", "600"})
+  public int cacheTtlSeconds;
+
+  private WeatherController controller;
+  private ExecutorService lookupExecutor;
+
+  @Setup
+  public void setUp() {
+    CityInfo london = TimelineFixtures.cityInfo("London", "Rain, Partially cloudy");
+    CityInfo paris = TimelineFixtures.cityInfo("Paris", "Clear");
+    VisualcrossingRepository repository = new VisualcrossingRepository() {
+      @Override
+      public CityInfo getByCity(String city) {
+        return "London".equals(city) ? london : paris;
+      }
+
+      @Override
+      public CityInfo getByCity(String city, FetchProfile profile) {
+        return getByCity(city);
+      }
+    };
+
+    WeatherService service = new WeatherService();
+    ReflectionTestUtils.setField(service, "weatherRepo", repository);
+    ForecastCache cache = new ForecastCache(1000, DataSize.ofMegabytes(64), Duration.ofSeconds(cacheTtlSeconds), Duration.ZERO, Duration.ZERO);
+    ReflectionTestUtils.setField(service, "forecastCache", cache);
+    ReflectionTestUtils.setField(service, "metrics", new WeatherMetrics(new SimpleMeterRegistry(), cache));
+    ReflectionTestUtils.setField(service, "cityPopularity", new CityPopularity(50, 4096));
+    CityCanonicalizer canonicalizer = new CityCanonicalizer();
+    ReflectionTestUtils.setField(canonicalizer, "maxAliases", 10000);
+    ReflectionTestUtils.setField(service, "cityCanonicalizer", canonicalizer);
+
+    lookupExecutor = Executors.newFixedThreadPool(4);
+    controller = new WeatherController();
+    ReflectionTestUtils.setField(controller, "weatherService", service);
+    ReflectionTestUtils.setField(controller, "lookupExecutor", lookupExecutor);
+    ReflectionTestUtils.setField(controller, "lookupTimeout", Duration.ofSeconds(10));
+  }
+
+  @TearDown
+  public void tearDown() {
+    lookupExecutor.shutdownNow();
+  }
+
+  @Benchmark
+  public ResponseEntity<CityInfo> forecastByCity() {
+    return controller.forecastByCity("London");
+  }
+
+  @Benchmark
+  public ResponseEntity<String> compareDaylightHours() {
+    return controller.compareDaylightHours("London", "Paris");
+  }
+
+  @Benchmark
+  public ResponseEntity<String> checkRain() {
+    return controller.checkRain("London", "Paris");
+  }
+}
@@ -0,0 +1,65 @@
+package com.weatherapp.myweatherapp.controller;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares rain classification strategies. Each call classifies a fresh copy of the conditions
+ * string, as a newly parsed response would supply, so the memo cannot reuse a cached hash code;
+ * {@code copyOnly} measures the cost of that copy alone. {@code memoizedAutomaton} puts a
+ * per-string memo in front of the automaton, to check whether memoizing is worth it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RainMatcherBenchmark {
+
+  private static final Set<String> TERMS = new HashSet<>(Arrays.asList(
+          "rain", "drizzle", "shower", "thunderstorm", "precipitation",
+          "downpour", "rainfall", "raining", "stormy"));
+
+  @Param({"Rain, Partially cloudy", "Partially cloudy", "Snow, Rain, Freezing Drizzle/Freezing Rain, Overcast"})
+  public String conditions;
+
+  private RainMatcher matcher;
+  private final ConcurrentMap<String, Boolean> memo = new ConcurrentHashMap<>();
+
+  @Setup
+  public void setUp() {
+    matcher = new RainMatcher(TERMS);
+  }
+
+  @Benchmark
+  public String copyOnly() {
+    return new String(conditions);
+  }
+
+  /** The previous implementation: lower-case the string, then one contains() per term */
+  @Benchmark
+  public boolean lowerCaseStream() {
+    String lowerConditions = new String(conditions).toLowerCase();
+    return TERMS.stream().anyMatch(lowerConditions::contains);
+  }
+
+  @Benchmark
+  public boolean automaton() {
+    return matcher.matches(new String(conditions));
+  }
+
+  @Benchmark
+  public boolean memoizedAutomaton() {
+    return memo.computeIfAbsent(new String(conditions), matcher::matches);
+  }
+}
@@ -0,0 +1,75 @@
+package com.weatherapp.myweatherapp.controller;
+
+import com.weatherapp.myweatherapp.TimelineFixtures;
+import com.weatherapp.myweatherapp.model.CityInfo;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the per-city work WeatherController does once a forecast is available:
+ * daylight extraction, the daylight minute calculation and rain classification.
+ * chronoUnitDaylightMinutes keeps the LocalTime-based calculation the controller used to do
+ * as a baseline for the second-of-day arithmetic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WeatherControllerBenchmark {
+
+  @Param({"Rain, Partially cloudy", "Partially cloudy", "Snow, Overcast"})
+  public String conditions;
+
+  private CityInfo cityInfo;
+  private WeatherController.DaylightInfo daylightInfo;
+
+  @Setup
+  public void setUp() {
+    cityInfo = TimelineFixtures.cityInfo("London", conditions);
+    daylightInfo = WeatherController.extractDaylightInfo(cityInfo, "London");
+  }
+
+  @Benchmark
+  public WeatherController.DaylightInfo extractDaylightInfo() {
+    return WeatherController.extractDaylightInfo(cityInfo, "London");
+  }
+
+  @Benchmark
+  public long daylightMinutes() {
+    return daylightInfo.getDaylightMinutes();
+  }
+
+  @Benchmark
+  public long extractAndComputeDaylight() {
+    return WeatherController.extractDaylightInfo(cityInfo, "London").getDaylightMinutes();
+  }
+
+  @Benchmark
+  public long chronoUnitDaylightMinutes() {
+    CityInfo.CurrentConditions current = cityInfo.getCurrentConditions();
+    long minutes = ChronoUnit.MINUTES.between(
+            LocalTime.ofSecondOfDay(current.sunrise()), LocalTime.ofSecondOfDay(current.sunset()));
+    if (minutes < 0) {
+      minutes += 24 * 60;
+    }
+    return minutes;
+  }
+
+  @Benchmark
+  public long forecastDaylightMinutes() {
+    return WeatherController.daylightMinutes(cityInfo, "London");
+  }
+
+  @Benchmark
+  public boolean isRaining() {
+    return WeatherController.isRaining(conditions);
+  }
+}
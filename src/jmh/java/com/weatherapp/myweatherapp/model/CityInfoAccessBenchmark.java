@@ -0,0 +1,60 @@
+package com.weatherapp.myweatherapp.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares reading sunrise, sunset and conditions from a CityInfo through reflection,
+ * as WeatherController used to on every request, against the typed accessors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CityInfoAccessBenchmark {
+
+  private CityInfo cityInfo;
+
+  @Setup
+  public void setUp() throws Exception {
+    cityInfo = new ObjectMapper().readValue(
+            "{\"address\":\"London\",\"currentConditions\":{\"sunrise\":\"04:43:11\","
+                    + "\"sunset\":\"21:21:32\",\"conditions\":\"Rain, Partially cloudy\"}}",
+            CityInfo.class);
+  }
+
+  @Benchmark
+  public void reflectiveExtraction(Blackhole bh) throws Exception {
+    Field conditionsField = cityInfo.getClass().getDeclaredField("currentConditions");
+    conditionsField.setAccessible(true);
+    Object conditions = conditionsField.get(cityInfo);
+
+    Field sunriseField = conditions.getClass().getDeclaredField("sunrise");
+    Field sunsetField = conditions.getClass().getDeclaredField("sunset");
+    Field weatherField = conditions.getClass().getDeclaredField("conditions");
+    sunriseField.setAccessible(true);
+    sunsetField.setAccessible(true);
+    weatherField.setAccessible(true);
+
+    bh.consume(sunriseField.get(conditions));
+    bh.consume(sunsetField.get(conditions));
+    bh.consume(weatherField.get(conditions));
+  }
+
+  @Benchmark
+  public void typedExtraction(Blackhole bh) {
+    CityInfo.CurrentConditions conditions = cityInfo.getCurrentConditions();
+
+    bh.consume(conditions.sunrise());
+    bh.consume(conditions.sunset());
+    bh.consume(conditions.conditions());
+  }
+}
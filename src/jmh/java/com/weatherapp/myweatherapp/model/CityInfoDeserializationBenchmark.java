@@ -0,0 +1,37 @@
+package com.weatherapp.myweatherapp.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.weatherapp.myweatherapp.TimelineFixtures;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures binding a full 15-day Visual Crossing timeline response into CityInfo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CityInfoDeserializationBenchmark {
+
+  private ObjectReader reader;
+  private byte[] body;
+
+  @Setup
+  public void setUp() {
+    reader = new ObjectMapper().readerFor(CityInfo.class);
+    body = TimelineFixtures.timelineJson("London", "Rain, Partially cloudy").getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public CityInfo deserializeTimeline() throws Exception {
+    return reader.readValue(body);
+  }
+}
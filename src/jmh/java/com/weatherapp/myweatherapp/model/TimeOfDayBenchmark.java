@@ -0,0 +1,45 @@
+package com.weatherapp.myweatherapp.model;
+
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares parsing a sunrise time with LocalTime.parse against the fixed-layout parser in
+ * WeatherValueJson, given either a String or the parser's character buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TimeOfDayBenchmark {
+
+  private String sunrise;
+  private char[] buffer;
+
+  @Setup
+  public void setUp() {
+    sunrise = new String("04:43:11");
+    buffer = "\"sunrise\":\"04:43:11\"".toCharArray();
+  }
+
+  @Benchmark
+  public int localTimeParse() {
+    return LocalTime.parse(sunrise).toSecondOfDay();
+  }
+
+  @Benchmark
+  public int fixedLayoutParse() {
+    return WeatherValueJson.parseTimeOfDay(sunrise);
+  }
+
+  @Benchmark
+  public int fixedLayoutParseFromBuffer() {
+    return WeatherValueJson.parseTimeOfDay(buffer, 11, 8);
+  }
+}
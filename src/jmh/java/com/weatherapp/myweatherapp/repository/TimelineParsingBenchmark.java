@@ -0,0 +1,52 @@
+package com.weatherapp.myweatherapp.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.weatherapp.myweatherapp.TimelineFixtures;
+import com.weatherapp.myweatherapp.model.CityInfo;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures binding a full timeline response body with Jackson databind, as the default
+ * RestTemplate converter does, and with the TimelineJsonReader behind the timeline converter.
+ * Both bind through the same CityInfo deserializer, so they should match; the benchmark guards
+ * against either path picking up overhead of its own. Both read from an InputStream as they
+ * would from the HTTP response. Run with {@code -prof gc} to compare allocation per response
+ * ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimelineParsingBenchmark {
+
+  private ObjectReader databind;
+  private TimelineJsonReader streaming;
+  private byte[] body;
+
+  @Setup
+  public void setUp() {
+    ObjectMapper mapper = new ObjectMapper();
+    databind = mapper.readerFor(CityInfo.class);
+    streaming = new TimelineJsonReader(mapper);
+    body = TimelineFixtures.timelineJson("London", "Rain, Partially cloudy").getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public CityInfo databind() throws Exception {
+    return databind.readValue(new ByteArrayInputStream(body));
+  }
+
+  @Benchmark
+  public CityInfo streaming() throws Exception {
+    return streaming.read(new ByteArrayInputStream(body));
+  }
+}
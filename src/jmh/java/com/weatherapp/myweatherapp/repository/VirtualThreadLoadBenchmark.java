@@ -0,0 +1,130 @@
+package com.weatherapp.myweatherapp.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.weatherapp.myweatherapp.config.HttpClientConfig;
+import com.weatherapp.myweatherapp.config.VirtualThreadConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Load test comparing blocking VisualcrossingRepository throughput when callers run on a
+ * Tomcat-sized platform thread pool versus one virtual thread per request. Each invocation
+ * issues a burst of concurrent lookups against a local stub that answers after a fixed delay,
+ * standing in for a slow Visual Crossing. The virtual variant requires Java 21 or later.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class VirtualThreadLoadBenchmark {
+
+  private static final int CONCURRENT_REQUESTS = 1000;
+
+  /** Tomcat's default maximum number of request threads */
+  private static final int PLATFORM_POOL_SIZE = 200;
+
+  @Param({"platform", "virtual"})
+  public String threads;
+
+  @Param({"50"})
+  public int upstreamDelayMillis;
+
+  private HttpServer upstream;
+  private ExecutorService upstreamExecutor;
+  private ExecutorService callers;
+  private PoolingHttpClientConnectionManager connectionManager;
+  private VisualcrossingRepository repository;
+
+  @Setup
+  public void setUp() throws Exception {
+    upstreamExecutor = Executors.newCachedThreadPool();
+    upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), CONCURRENT_REQUESTS);
+    upstream.setExecutor(upstreamExecutor);
+    upstream.createContext("/timeline/", exchange -> {
+      try {
+        Thread.sleep(upstreamDelayMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      byte[] body = ("{\"address\":\"London\",\"currentConditions\":{\"sunrise\":\"04:43:11\","
+              + "\"sunset\":\"21:21:32\",\"conditions\":\"Rain\"}}").getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    upstream.start();
+
+    HttpClientConfig config = new HttpClientConfig();
+    ReflectionTestUtils.setField(config, "maxConnections", CONCURRENT_REQUESTS);
+    ReflectionTestUtils.setField(config, "maxConnectionsPerRoute", CONCURRENT_REQUESTS);
+    ReflectionTestUtils.setField(config, "connectTimeout", Duration.ofSeconds(2));
+    ReflectionTestUtils.setField(config, "readTimeout", Duration.ofSeconds(10));
+    ReflectionTestUtils.setField(config, "keepAlive", Duration.ofSeconds(30));
+    ReflectionTestUtils.setField(config, "idleEviction", Duration.ofSeconds(30));
+    connectionManager = config.visualcrossingConnectionManager();
+
+    repository = new VisualcrossingRepository();
+    repository.url = "http://127.0.0.1:" + upstream.getAddress().getPort() + "/";
+    repository.key = "benchmark";
+    // Pin the concurrency limit at the burst size and lift the quota so only the threading model is compared
+    repository.upstreamGuard = new UpstreamGuard(new CircuitBreaker(20, 10, 50, 80, Duration.ofSeconds(3),
+            Duration.ofSeconds(30), 3, System::nanoTime),
+            new ConcurrencyLimiter(CONCURRENT_REQUESTS, CONCURRENT_REQUESTS, CONCURRENT_REQUESTS, 0.9, 2.0),
+            Duration.ofSeconds(10), new UpstreamRateLimiter(0, 0, 0, System::nanoTime), Duration.ZERO,
+            Duration.ofSeconds(1), new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(config, "streamingParser", true);
+    repository.visualcrossingRestTemplate = config.visualcrossingRestTemplate(
+            new RestTemplateBuilder(), config.visualcrossingHttpClient(connectionManager), new ObjectMapper(),
+            new SimpleMeterRegistry());
+
+    callers = "virtual".equals(threads)
+            ? VirtualThreadConfig.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+  }
+
+  @TearDown
+  public void tearDown() {
+    callers.shutdownNow();
+    connectionManager.close();
+    upstream.stop(0);
+    upstreamExecutor.shutdownNow();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CONCURRENT_REQUESTS)
+  public void concurrentLookups() {
+    CompletableFuture<?>[] lookups = new CompletableFuture<?>[CONCURRENT_REQUESTS];
+    for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+      lookups[i] = CompletableFuture.runAsync(() -> repository.getByCity("London"), callers);
+    }
+    CompletableFuture.allOf(lookups).join();
+  }
+}
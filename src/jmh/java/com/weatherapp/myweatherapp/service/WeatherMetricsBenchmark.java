@@ -0,0 +1,48 @@
+package com.weatherapp.myweatherapp.service;
+
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Measures what recording a lookup costs on the request path, against the Prometheus registry
+ * the application scrapes from. Run with -t 4 to see contention between request threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WeatherMetricsBenchmark {
+
+  private WeatherMetrics metrics;
+
+  @Setup
+  public void setUp() {
+    ForecastCache cache = new ForecastCache(1000, DataSize.ofMegabytes(64), Duration.ofMinutes(10), Duration.ZERO, Duration.ZERO);
+    metrics = new WeatherMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), cache);
+  }
+
+  @Benchmark
+  public long nanoTime() {
+    return System.nanoTime();
+  }
+
+  @Benchmark
+  public void recordCacheHit() {
+    metrics.recordLookup(FetchProfile.FULL, WeatherMetrics.Lookup.CACHE, System.nanoTime());
+  }
+
+  @Benchmark
+  public void recordUpstreamLookup() {
+    metrics.recordLookup(FetchProfile.FULL, WeatherMetrics.Lookup.UPSTREAM, System.nanoTime());
+  }
+}
@@ -0,0 +1,31 @@
+package com.weatherapp.myweatherapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapp.myweatherapp.service.ForecastStore;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the on-disk store behind the forecast cache. Point {@code weather.cache.persistent.path}
+ * at a volume that outlives the instance so a restart starts from the previous run's forecasts.
+ */
+@Configuration
+@ConditionalOnProperty(name = "weather.cache.persistent.enabled", havingValue = "true")
+public class ForecastStoreConfig {
+
+  @Value("${weather.cache.persistent.path:forecast-cache/forecasts.log}")
+  Path path;
+
+  @Value("${weather.cache.ttl:10m}")
+  Duration ttl;
+
+  @Bean
+  public ForecastStore forecastStore(ObjectMapper objectMapper) throws IOException {
+    return new ForecastStore(path, ttl, objectMapper);
+  }
+}
@@ -0,0 +1,92 @@
+package com.weatherapp.myweatherapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapp.myweatherapp.repository.TimelineMessageConverter;
+import com.weatherapp.myweatherapp.repository.UpstreamMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Configures the long-lived HTTP client used to call the Visual Crossing API.
+ * A single pooled client is shared by every request so that connections, TLS sessions
+ * and message converters are reused rather than rebuilt per call.
+ */
+@Configuration
+public class HttpClientConfig {
+
+  @Value("${weather.http.max-connections:100}")
+  int maxConnections;
+
+  @Value("${weather.http.max-connections-per-route:50}")
+  int maxConnectionsPerRoute;
+
+  @Value("${weather.http.connect-timeout:2s}")
+  Duration connectTimeout;
+
+  @Value("${weather.http.read-timeout:5s}")
+  Duration readTimeout;
+
+  @Value("${weather.http.keep-alive:30s}")
+  Duration keepAlive;
+
+  @Value("${weather.http.idle-eviction:30s}")
+  Duration idleEviction;
+
+  @Bean
+  public PoolingHttpClientConnectionManager visualcrossingConnectionManager() {
+    return PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnectionsPerRoute)
+            .setDefaultSocketConfig(SocketConfig.custom()
+                    .setSoTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                    .build())
+            .build();
+  }
+
+  @Bean
+  public CloseableHttpClient visualcrossingHttpClient(PoolingHttpClientConnectionManager visualcrossingConnectionManager) {
+    RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+            .setResponseTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+            .build();
+
+    return HttpClients.custom()
+            .setConnectionManager(visualcrossingConnectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAlive.toMillis()))
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMilliseconds(idleEviction.toMillis()))
+            .build();
+  }
+
+  /** Bind timeline responses with the dedicated TimelineMessageConverter ahead of the general Jackson one */
+  @Value("${weather.visualcrossing.streaming-parser:true}")
+  boolean streamingParser;
+
+  @Bean
+  public RestTemplate visualcrossingRestTemplate(RestTemplateBuilder builder, CloseableHttpClient visualcrossingHttpClient,
+                                                 ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+    RestTemplate restTemplate = builder
+            .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(visualcrossingHttpClient))
+            .additionalInterceptors(new UpstreamMetricsInterceptor(meterRegistry))
+            .build();
+    if (streamingParser) {
+      restTemplate.getMessageConverters().add(0, new TimelineMessageConverter(objectMapper));
+    }
+    return restTemplate;
+  }
+}
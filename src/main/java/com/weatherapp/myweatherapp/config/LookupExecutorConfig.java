@@ -0,0 +1,75 @@
+package com.weatherapp.myweatherapp.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configures the bounded executors used to run city lookups concurrently.
+ * When the lookup pool and its queue are saturated the lookup runs on the calling thread,
+ * so endpoints degrade to sequential fetching instead of rejecting requests.
+ * Batch requests get a pool of their own that rejects work once saturated, so a burst of
+ * batches cannot take over the request threads or starve the single-city lookups.
+ * With {@code weather.threads.virtual=true} these pools are replaced by VirtualThreadConfig.
+ * Background refreshes of stale forecasts always run on a small pool that drops work once
+ * saturated: the stale forecast is served meanwhile, so a refresh must never run on the request thread.
+ */
+@Configuration
+public class LookupExecutorConfig {
+
+  @Value("${weather.lookup.pool-size:16}")
+  int poolSize;
+
+  @Value("${weather.lookup.queue-capacity:100}")
+  int queueCapacity;
+
+  @Value("${weather.batch.pool-size:16}")
+  int batchPoolSize;
+
+  @Value("${weather.batch.queue-capacity:32}")
+  int batchQueueCapacity;
+
+  @Value("${weather.cache.refresh.pool-size:2}")
+  int refreshPoolSize;
+
+  @Value("${weather.cache.refresh.queue-capacity:50}")
+  int refreshQueueCapacity;
+
+  @Bean
+  @ConditionalOnProperty(name = "weather.threads.virtual", havingValue = "false", matchIfMissing = true)
+  public ThreadPoolTaskExecutor weatherLookupExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("weather-lookup-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    return executor;
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "weather.threads.virtual", havingValue = "false", matchIfMissing = true)
+  public ThreadPoolTaskExecutor batchLookupExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(batchPoolSize);
+    executor.setMaxPoolSize(batchPoolSize);
+    executor.setQueueCapacity(batchQueueCapacity);
+    executor.setThreadNamePrefix("weather-batch-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    return executor;
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor forecastRefreshExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(refreshPoolSize);
+    executor.setMaxPoolSize(refreshPoolSize);
+    executor.setQueueCapacity(refreshQueueCapacity);
+    executor.setThreadNamePrefix("weather-refresh-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    return executor;
+  }
+}
@@ -0,0 +1,54 @@
+package com.weatherapp.myweatherapp.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in mode that runs Tomcat request handling and the concurrent city lookups on virtual threads,
+ * enabled with {@code weather.threads.virtual=true}. Controllers keep their blocking style; a request
+ * blocked on Visual Crossing parks its virtual thread instead of holding a platform thread.
+ *
+ * <p>The project compiles for Java 17, so the virtual thread executor is looked up reflectively and
+ * startup fails if the mode is enabled on a runtime older than Java 21.
+ */
+@Configuration
+@ConditionalOnProperty(name = "weather.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+    return protocolHandler -> protocolHandler.setExecutor(newVirtualThreadPerTaskExecutor());
+  }
+
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService weatherLookupExecutor() {
+    return newVirtualThreadPerTaskExecutor();
+  }
+
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService batchLookupExecutor() {
+    return newVirtualThreadPerTaskExecutor();
+  }
+
+  /**
+   * Creates an executor that starts a new virtual thread for each task.
+   *
+   * @return The virtual thread executor
+   * @throws IllegalStateException if the running JVM does not support virtual threads
+   */
+  public static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("weather.threads.virtual requires Java 21 or later, running on "
+              + Runtime.version(), e);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("Could not create virtual thread executor", e);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.weatherapp.myweatherapp.config;
+
+import io.netty.channel.ChannelOption;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Configures the non-blocking WebClient used by the reactive endpoints to call the Visual Crossing API.
+ * It shares the pool sizes and timeouts of the blocking client so both paths behave the same upstream.
+ */
+@Configuration
+public class WebClientConfig {
+
+  @Value("${weather.visualcrossing.url}")
+  String url;
+
+  @Value("${weather.http.max-connections:100}")
+  int maxConnections;
+
+  @Value("${weather.http.connect-timeout:2s}")
+  Duration connectTimeout;
+
+  @Value("${weather.http.read-timeout:5s}")
+  Duration readTimeout;
+
+  @Value("${weather.http.idle-eviction:30s}")
+  Duration idleEviction;
+
+  @Value("${weather.http.max-response-size:4MB}")
+  DataSize maxResponseSize;
+
+  @Bean(destroyMethod = "dispose")
+  public ConnectionProvider visualcrossingConnectionProvider() {
+    return ConnectionProvider.builder("visualcrossing")
+            .maxConnections(maxConnections)
+            .maxIdleTime(idleEviction)
+            .evictInBackground(idleEviction)
+            .build();
+  }
+
+  @Bean
+  public WebClient visualcrossingWebClient(WebClient.Builder builder, ConnectionProvider visualcrossingConnectionProvider) {
+    HttpClient httpClient = HttpClient.create(visualcrossingConnectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+            .responseTimeout(readTimeout);
+
+    return builder
+            .baseUrl(url)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) maxResponseSize.toBytes()))
+            .build();
+  }
+}
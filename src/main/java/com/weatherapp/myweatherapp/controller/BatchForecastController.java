@@ -0,0 +1,220 @@
+package com.weatherapp.myweatherapp.controller;
+
+import com.weatherapp.myweatherapp.model.CityForecastResult;
+import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.repository.UpstreamUnavailableException;
+import com.weatherapp.myweatherapp.service.WeatherService;
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Controller serving forecasts for many cities in a single request.
+ * Duplicate cities are looked up once, cached forecasts are answered immediately,
+ * and the remaining cities are fetched concurrently with bounded parallelism on an executor
+ * reserved for batches, so a burst of batches cannot starve the single-city endpoints.
+ */
+@Controller
+public class BatchForecastController {
+
+  @Autowired
+  private WeatherService weatherService;
+
+  @Autowired
+  private InboundLimitFilter inboundLimitFilter;
+
+  @Autowired
+  @Qualifier("batchLookupExecutor")
+  private Executor lookupExecutor;
+
+  /** Deadline for all lookups of a batch */
+  @Value("${weather.lookup.timeout:10s}")
+  private Duration lookupTimeout;
+
+  /** Maximum number of cities accepted in one batch */
+  @Value("${weather.batch.max-cities:100}")
+  private int maxCities;
+
+  /** Maximum number of upstream lookups a single batch runs at once */
+  @Value("${weather.batch.parallelism:8}")
+  private int parallelism;
+
+  /**
+   * Retrieves forecasts for the cities given as repeated {@code cities} parameters. Each value is
+   * one city, so names containing commas such as "London,UK" are looked up as they are.
+   *
+   * @param params The query parameters, holding a {@code cities} value per city
+   * @param request The request, identifying the client to refund if lookups are shed
+   * @return ResponseEntity containing a result per requested city, in request order
+   */
+  @GetMapping("/forecast")
+  public ResponseEntity<Map<String, CityForecastResult>> forecastByCities(
+          @RequestParam MultiValueMap<String, String> params, HttpServletRequest request) {
+    return forecasts(params.get("cities"), request);
+  }
+
+  /**
+   * Retrieves forecasts for a JSON array of cities. The inbound limit has charged the request one
+   * token without seeing the body, so the client is charged here for the other cities, and gets
+   * 429 if it lacks the tokens.
+   *
+   * @param cities The names of the cities to get forecasts for
+   * @param request The request, identifying the client to charge and to refund if lookups are shed
+   * @return ResponseEntity containing a result per requested city, in request order
+   */
+  @PostMapping("/forecast/batch")
+  public ResponseEntity<Map<String, CityForecastResult>> forecastBatch(@RequestBody List<String> cities,
+                                                                       HttpServletRequest request) {
+    if (cities != null && cities.size() <= maxCities) {
+      long waitNanos = inboundLimitFilter.charge(request, cities.size() - 1);
+      if (waitNanos > 0) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, InboundLimitFilter.retryAfter(waitNanos))
+                .build();
+      }
+    }
+    return forecasts(cities, request);
+  }
+
+  /**
+   * Answers a batch whose cities the client has been charged a token each for. Cities shed
+   * because the batch executor is saturated are refunded, so a busy server does not push the
+   * client towards its rate limit.
+   */
+  private ResponseEntity<Map<String, CityForecastResult>> forecasts(List<String> cities, HttpServletRequest request) {
+    if (cities == null || cities.isEmpty() || cities.size() > maxCities) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    Map<String, String> namesByKey = new LinkedHashMap<>();
+    Map<String, CityForecastResult> results = new ConcurrentHashMap<>();
+    Queue<String> pending = new ConcurrentLinkedQueue<>();
+
+    for (String city : cities) {
+      String key = WeatherService.cacheKey(city);
+      if (key == null) {
+        continue;
+      }
+      if (namesByKey.putIfAbsent(key, city) != null) {
+        continue;
+      }
+      CityInfo cached = weatherService.cachedForecast(city);
+      if (cached != null) {
+        results.put(key, CityForecastResult.success(cached));
+      } else {
+        pending.add(key);
+      }
+    }
+
+    if (!pending.isEmpty()) {
+      int shed = fetchPending(pending, namesByKey, results);
+      inboundLimitFilter.refund(request, shed);
+    }
+
+    Map<String, CityForecastResult> response = new LinkedHashMap<>();
+    for (String city : cities) {
+      String key = WeatherService.cacheKey(city);
+      if (key == null) {
+        response.put(city, CityForecastResult.failure(HttpStatus.BAD_REQUEST.value(), "City names cannot be empty"));
+      } else if (!response.containsKey(namesByKey.get(key))) {
+        response.put(namesByKey.get(key), results.getOrDefault(key,
+                CityForecastResult.failure(HttpStatus.GATEWAY_TIMEOUT.value(), "Timed out waiting for weather data")));
+      }
+    }
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Drains the pending queue with at most {@code parallelism} workers on the batch executor,
+   * waiting until every city is resolved or the batch deadline passes. If the executor is
+   * saturated the batch runs with the workers it got, and with none every pending city is
+   * reported as unavailable.
+   *
+   * @return The number of cities reported unavailable because no worker could be started
+   */
+  private int fetchPending(Queue<String> pending, Map<String, String> namesByKey,
+                            Map<String, CityForecastResult> results) {
+    int workers = Math.min(parallelism, pending.size());
+    List<CompletableFuture<Void>> running = new ArrayList<>(workers);
+    try {
+      for (int i = 0; i < workers; i++) {
+        running.add(CompletableFuture.runAsync(() -> {
+          String key;
+          while ((key = pending.poll()) != null) {
+            results.put(key, lookup(namesByKey.get(key)));
+          }
+        }, lookupExecutor));
+      }
+    } catch (RejectedExecutionException e) {
+      if (running.isEmpty()) {
+        int shed = 0;
+        String key;
+        while ((key = pending.poll()) != null) {
+          results.put(key, CityForecastResult.failure(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                  "Server is busy, try again shortly"));
+          shed++;
+        }
+        return shed;
+      }
+    }
+
+    try {
+      CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[0]))
+              .get(lookupTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException | ExecutionException e) {
+      // Cities without a result are reported individually
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      pending.clear();
+    }
+    return 0;
+  }
+
+  /**
+   * Fetches a city that missed the cache the way the single-city endpoint does, so it may be
+   * served stale while refreshed or when Visual Crossing fails, mapping failures to the status
+   * that endpoint would return.
+   */
+  private CityForecastResult lookup(String city) {
+    try {
+      CityInfo ci = weatherService.forecastByCity(city);
+      if (ci == null) {
+        return CityForecastResult.failure(HttpStatus.NOT_FOUND.value(), "No forecast available for " + city);
+      }
+      return CityForecastResult.success(ci);
+    } catch (HttpClientErrorException e) {
+      return CityForecastResult.failure(e.getStatusCode().value(), "Error accessing weather data: " + e.getMessage());
+    } catch (UpstreamUnavailableException e) {
+      return CityForecastResult.failure(HttpStatus.SERVICE_UNAVAILABLE.value(), "Weather data is temporarily unavailable");
+    } catch (Exception e) {
+      return CityForecastResult.failure(HttpStatus.INTERNAL_SERVER_ERROR.value(),
+              "An unexpected error occurred: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package com.weatherapp.myweatherapp.controller;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client request rate limit, kept lock-free with the generic cell rate algorithm (GCRA).
+ *
+ * <p>GCRA behaves like a token bucket of {@code burst} tokens refilled at {@code requestsPerSecond},
+ * but stores a single timestamp per client: the theoretical arrival time (TAT) at which the client's
+ * bucket would be full again. A request costing {@code n} tokens pushes the TAT {@code n} emission
+ * intervals further and is admitted if the TAT stays within {@code burst} intervals of now. The TAT
+ * is updated with compare-and-set, so admitting a request never blocks. A request costing more than
+ * the burst is admitted only once the client's bucket is full, and is still charged in full, so the
+ * client pays it off before its next request.
+ *
+ * <p>At most {@code maxClients} clients are tracked. Clients whose bucket has refilled are
+ * forgotten, at most once a second, to make room; until then new clients share one overflow
+ * bucket, so a flood of distinct keys cannot grow the table. Each key the table does track starts
+ * with a full burst, so the limit only holds per client if clients cannot mint keys freely; callers
+ * should key on something the client does not choose, such as its address.
+ */
+class ClientRateLimiter {
+
+  private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final long intervalNanos;
+  private final long burstNanos;
+  private final int burst;
+  private final int maxClients;
+  private final LongSupplier ticker;
+
+  private final ConcurrentMap<String, AtomicLong> clients = new ConcurrentHashMap<>();
+  private final AtomicLong overflow;
+  private final AtomicLong lastSweep;
+
+  /**
+   * @param requestsPerSecond Sustained requests a client may make per second
+   * @param burst Requests a client may make at once after being idle
+   * @param maxClients Clients tracked individually before new ones share the overflow bucket
+   * @param ticker Source of System.nanoTime()-style timestamps
+   */
+  ClientRateLimiter(double requestsPerSecond, int burst, int maxClients, LongSupplier ticker) {
+    if (requestsPerSecond <= 0 || burst <= 0 || maxClients <= 0) {
+      throw new IllegalArgumentException("requests-per-second, burst and max-clients must be positive");
+    }
+    this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+    this.burstNanos = burst * intervalNanos;
+    this.burst = burst;
+    this.maxClients = maxClients;
+    this.ticker = ticker;
+    long now = ticker.getAsLong();
+    this.overflow = new AtomicLong(now);
+    this.lastSweep = new AtomicLong(now);
+  }
+
+  /**
+   * Admits a request if the client has the tokens for it.
+   *
+   * @param client The key identifying the client
+   * @param cost The tokens the request takes
+   * @return 0 if the request is admitted, otherwise the nanoseconds until it would be
+   */
+  long tryAcquire(String client, int cost) {
+    long now = ticker.getAsLong();
+    AtomicLong tat = bucket(client, now);
+    long increment = cost * intervalNanos;
+    while (true) {
+      long current = tat.get();
+      long next = Math.max(current, now) + increment;
+      long excess = cost > burst ? current - now : next - now - burstNanos;
+      if (excess > 0) {
+        return excess;
+      }
+      if (tat.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * Gives back the tokens of an admitted request that was then refused for another reason. Only
+   * clients tracked individually are refunded, and never beyond a full bucket.
+   *
+   * @param client The key identifying the client
+   * @param cost The tokens the request took
+   */
+  void refund(String client, int cost) {
+    AtomicLong tat = clients.get(client);
+    if (tat != null) {
+      long decrement = cost * intervalNanos;
+      tat.getAndUpdate(current -> current - decrement);
+    }
+  }
+
+  /** Clients currently tracked individually */
+  int trackedClients() {
+    return clients.size();
+  }
+
+  private AtomicLong bucket(String client, long now) {
+    AtomicLong tat = clients.get(client);
+    if (tat != null) {
+      return tat;
+    }
+    if (clients.size() >= maxClients && !sweep(now)) {
+      return overflow;
+    }
+    return clients.computeIfAbsent(client, c -> new AtomicLong(now));
+  }
+
+  /**
+   * Forgets clients whose bucket is full again, unless that was tried within the last second.
+   * A request racing with the removal of its client is admitted against the forgotten bucket,
+   * which costs at most one extra burst.
+   *
+   * @return Whether there is room for another client afterwards
+   */
+  private boolean sweep(long now) {
+    long last = lastSweep.get();
+    if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+      return false;
+    }
+    clients.values().removeIf(tat -> tat.get() - now <= 0);
+    return clients.size() < maxClients;
+  }
+}
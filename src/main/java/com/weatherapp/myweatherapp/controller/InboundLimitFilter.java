@@ -0,0 +1,243 @@
+package com.weatherapp.myweatherapp.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Protects the weather endpoints from a single noisy client and from overload.
+ *
+ * <p>Each client is rate limited by a {@link ClientRateLimiter}. Clients are told apart by their
+ * address; an API key header only identifies the client when it is one of the configured
+ * {@code api-keys}, since a key the client makes up would let it start a fresh bucket at will.
+ * Requests cost a token per city they look up: two for the two-city endpoints and one per
+ * {@code cities} value for {@code GET /forecast}. A batch posted to {@code /forecast/batch} costs
+ * one token here, and {@link BatchForecastController} charges the rest through
+ * {@link #charge} once it has read the body. A client over its limit gets 429 with a Retry-After
+ * header. Independently, once {@code max-in-flight} requests are being handled, further requests
+ * get 503 straight away rather than queueing behind them, which keeps latency bounded for the
+ * requests already admitted. That check comes first, so a request shed for overload is not charged
+ * to its client; likewise the batch endpoints refund the cities their executor had no room for.
+ * Actuator endpoints are never limited.
+ */
+@Component
+public class InboundLimitFilter extends OncePerRequestFilter {
+
+  private final ClientRateLimiter clientRateLimiter;
+  private final String clientHeader;
+  private final Set<String> apiKeys;
+  private final int maxInFlight;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Counter rateLimitedRejections;
+  private final Counter overloadedRejections;
+
+  @Autowired
+  public InboundLimitFilter(
+          @Value("${weather.inbound.rate-limit.requests-per-second:10}") double requestsPerSecond,
+          @Value("${weather.inbound.rate-limit.burst:20}") int burst,
+          @Value("${weather.inbound.rate-limit.max-clients:10000}") int maxClients,
+          @Value("${weather.inbound.rate-limit.client-header:X-API-Key}") String clientHeader,
+          @Value("${weather.inbound.rate-limit.api-keys:}") String[] apiKeys,
+          @Value("${weather.inbound.max-in-flight:150}") int maxInFlight,
+          MeterRegistry registry) {
+    this(requestsPerSecond > 0 ? new ClientRateLimiter(requestsPerSecond, burst, maxClients, System::nanoTime) : null,
+            clientHeader, Arrays.stream(apiKeys).map(String::trim).filter(k -> !k.isEmpty())
+                    .collect(Collectors.toUnmodifiableSet()),
+            maxInFlight, registry);
+  }
+
+  /**
+   * @param clientRateLimiter The per-client limit, or null for none
+   * @param clientHeader Request header holding the client's API key
+   * @param apiKeys API keys that identify a client; any other key is ignored
+   * @param maxInFlight Requests handled at once before shedding, or 0 for no limit
+   * @param registry Registry for the filter's metrics
+   */
+  InboundLimitFilter(ClientRateLimiter clientRateLimiter, String clientHeader, Set<String> apiKeys,
+                     int maxInFlight, MeterRegistry registry) {
+    this.clientRateLimiter = clientRateLimiter;
+    this.clientHeader = clientHeader;
+    this.apiKeys = apiKeys;
+    this.maxInFlight = maxInFlight;
+
+    Gauge.builder("weather.inbound.requests.active", inFlight, AtomicInteger::get)
+            .description("Weather requests being handled")
+            .register(registry);
+    if (clientRateLimiter != null) {
+      Gauge.builder("weather.inbound.clients", clientRateLimiter, ClientRateLimiter::trackedClients)
+              .description("Clients tracked by the per-client rate limit")
+              .register(registry);
+    }
+    rateLimitedRejections = rejections("rate_limited", registry);
+    overloadedRejections = rejections("overloaded", registry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return path(request).startsWith("/actuator");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+          throws ServletException, IOException {
+    // Shed before charging, so a request the server is too busy for costs the client nothing
+    int active = inFlight.incrementAndGet();
+    if (maxInFlight > 0 && active > maxInFlight) {
+      inFlight.decrementAndGet();
+      overloadedRejections.increment();
+      reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1),
+              "Server is busy, try again shortly");
+      return;
+    }
+    long waitNanos = charge(request, cost(request));
+    if (waitNanos > 0) {
+      inFlight.decrementAndGet();
+      reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos, "Too many requests, slow down");
+      return;
+    }
+
+    boolean async = false;
+    try {
+      chain.doFilter(request, response);
+      if (request.isAsyncStarted()) {
+        // Reactive endpoints complete after the filter returns
+        request.getAsyncContext().addListener(new InFlightListener());
+        async = true;
+      }
+    } finally {
+      if (!async) {
+        inFlight.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Charges the client of a request for lookups the filter could not count up front.
+   *
+   * @param request The request being handled
+   * @param cost The tokens to take
+   * @return 0 if the client had the tokens, otherwise the nanoseconds until it would have
+   */
+  long charge(HttpServletRequest request, int cost) {
+    if (clientRateLimiter == null || cost <= 0) {
+      return 0;
+    }
+    long waitNanos = clientRateLimiter.tryAcquire(clientKey(request), cost);
+    if (waitNanos > 0) {
+      rateLimitedRejections.increment();
+    }
+    return waitNanos;
+  }
+
+  /**
+   * Gives the client of a request back tokens it was charged for lookups that were then shed.
+   *
+   * @param request The request being handled
+   * @param cost The tokens to give back
+   */
+  void refund(HttpServletRequest request, int cost) {
+    if (clientRateLimiter != null && cost > 0) {
+      clientRateLimiter.refund(clientKey(request), cost);
+    }
+  }
+
+  /**
+   * Identifies the client by its API key header when that is a configured key, otherwise by its
+   * address.
+   */
+  private String clientKey(HttpServletRequest request) {
+    String key = request.getHeader(clientHeader);
+    if (key != null && apiKeys.contains(key.trim())) {
+      return "key:" + key.trim();
+    }
+    return "ip:" + request.getRemoteAddr();
+  }
+
+  /**
+   * Tokens a request takes: one per city it looks up, and at least one.
+   */
+  static int cost(HttpServletRequest request) {
+    String path = path(request);
+    if (path.startsWith("/reactive/")) {
+      path = path.substring("/reactive".length());
+    }
+    if (path.startsWith("/compare-daylight/") || path.startsWith("/check-rain/")) {
+      return 2;
+    }
+    if (path.equals("/forecast")) {
+      String[] cities = request.getParameterValues("cities");
+      return cities != null ? Math.max(1, cities.length) : 1;
+    }
+    return 1;
+  }
+
+  private static String path(HttpServletRequest request) {
+    return request.getRequestURI().substring(request.getContextPath().length());
+  }
+
+  private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos, String message)
+          throws IOException {
+    response.setStatus(status.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter(retryAfterNanos));
+    response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+    response.getWriter().write(message);
+  }
+
+  /**
+   * The Retry-After value for a wait, rounded up so a client retrying on time is admitted.
+   */
+  static String retryAfter(long retryAfterNanos) {
+    long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1);
+    return Long.toString(Math.max(1, retryAfterSeconds));
+  }
+
+  private static Counter rejections(String reason, MeterRegistry registry) {
+    return Counter.builder("weather.inbound.rejected")
+            .description("Weather requests refused before reaching a controller")
+            .tag("reason", reason)
+            .register(registry);
+  }
+
+  /**
+   * Counts an asynchronous request as in flight until it completes. Errors and timeouts are
+   * followed by completion, so only completion is counted.
+   */
+  private final class InFlightListener implements AsyncListener {
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      inFlight.decrementAndGet();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+  }
+}
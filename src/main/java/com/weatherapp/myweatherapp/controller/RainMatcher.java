@@ -0,0 +1,135 @@
+package com.weatherapp.myweatherapp.controller;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Finds whether a conditions string contains any of a fixed set of terms, ignoring case.
+ *
+ * <p>The terms are compiled into an Aho-Corasick automaton whose failure links are folded into a
+ * full transition table over the letters a-z. Classifying a string is then a single pass over its
+ * characters with one table lookup each and no allocation, however many terms there are.
+ * Characters outside a-z return the automaton to its start state, because no term contains them.
+ *
+ * <p>Results are not memoized per conditions string. Each response carries new String instances,
+ * so a memo lookup pays for hashing and comparing the string, which costs more than the scan
+ * itself (see RainMatcherBenchmark).
+ */
+final class RainMatcher {
+
+  private static final int ALPHABET = 26;
+
+  /** Next state for each state and letter, indexed by {@code state * ALPHABET + letter} */
+  private final int[] transitions;
+
+  /** Whether reaching a state means some term has just been matched */
+  private final boolean[] accepting;
+
+  RainMatcher(Collection<String> terms) {
+    // Build the trie of terms; -1 marks a missing edge
+    List<int[]> trie = new ArrayList<>();
+    List<Boolean> terminal = new ArrayList<>();
+    trie.add(newState());
+    terminal.add(false);
+    for (String term : terms) {
+      int state = 0;
+      for (int i = 0; i < term.length(); i++) {
+        int letter = letter(term.charAt(i));
+        if (letter < 0) {
+          throw new IllegalArgumentException("Terms may only contain the letters a-z: " + term);
+        }
+        if (trie.get(state)[letter] < 0) {
+          trie.get(state)[letter] = trie.size();
+          trie.add(newState());
+          terminal.add(false);
+        }
+        state = trie.get(state)[letter];
+      }
+      terminal.set(state, true);
+    }
+
+    // Breadth-first, turn missing edges into failure transitions so every lookup is one step
+    int states = trie.size();
+    transitions = new int[states * ALPHABET];
+    accepting = new boolean[states];
+    int[] failure = new int[states];
+    Queue<Integer> queue = new ArrayDeque<>();
+    accepting[0] = terminal.get(0);
+    for (int letter = 0; letter < ALPHABET; letter++) {
+      int next = trie.get(0)[letter];
+      if (next < 0) {
+        transitions[letter] = 0;
+      } else {
+        transitions[letter] = next;
+        failure[next] = 0;
+        queue.add(next);
+      }
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.remove();
+      accepting[state] = terminal.get(state) || accepting[failure[state]];
+      for (int letter = 0; letter < ALPHABET; letter++) {
+        int next = trie.get(state)[letter];
+        if (next < 0) {
+          transitions[state * ALPHABET + letter] = transitions[failure[state] * ALPHABET + letter];
+        } else {
+          transitions[state * ALPHABET + letter] = next;
+          failure[next] = transitions[failure[state] * ALPHABET + letter];
+          queue.add(next);
+        }
+      }
+    }
+  }
+
+  /**
+   * Scans a string for any of the terms.
+   *
+   * @param text The text to scan, may be null
+   * @return true if the text contains any term, ignoring case
+   */
+  boolean matches(CharSequence text) {
+    if (text == null) {
+      return false;
+    }
+    int state = 0;
+    for (int i = 0; i < text.length(); i++) {
+      int letter = letter(text.charAt(i));
+      if (letter < 0) {
+        state = 0;
+        continue;
+      }
+      state = transitions[state * ALPHABET + letter];
+      if (accepting[state]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Maps a character to its case-folded letter index, or -1 if it is not one of a-z in any case.
+   */
+  private static int letter(char c) {
+    if (c >= 'a' && c <= 'z') {
+      return c - 'a';
+    }
+    if (c >= 'A' && c <= 'Z') {
+      return c - 'A';
+    }
+    if (c < 128) {
+      return -1;
+    }
+    char lower = Character.toLowerCase(c);
+    return lower >= 'a' && lower <= 'z' ? lower - 'a' : -1;
+  }
+
+  private static int[] newState() {
+    int[] edges = new int[ALPHABET];
+    Arrays.fill(edges, -1);
+    return edges;
+  }
+}
@@ -0,0 +1,149 @@
+package com.weatherapp.myweatherapp.controller;
+
+import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import com.weatherapp.myweatherapp.repository.UpstreamUnavailableException;
+import com.weatherapp.myweatherapp.service.ReactiveWeatherService;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variants of the WeatherController endpoints, served under /reactive.
+ * Upstream calls run on the WebClient event loop, so no request thread is held while
+ * Visual Crossing responds. Responses and status codes match the blocking endpoints.
+ */
+@Controller
+public class ReactiveWeatherController {
+
+  @Autowired
+  private ReactiveWeatherService weatherService;
+
+  /** Combined deadline for both lookups of a two-city endpoint */
+  @Value("${weather.lookup.timeout:10s}")
+  private Duration lookupTimeout;
+
+  /**
+   * Retrieves the weather forecast for a specified city.
+   *
+   * @param city The name of the city to get the forecast for
+   * @return Mono of a ResponseEntity containing the CityInfo if successful, or appropriate error response
+   */
+  @GetMapping("/reactive/forecast/{city}")
+  public Mono<ResponseEntity<CityInfo>> forecastByCity(@PathVariable("city") String city) {
+    if (city == null || city.trim().isEmpty()) {
+      return Mono.just(ResponseEntity.badRequest().build());
+    }
+
+    return weatherService.forecastByCity(city)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.ok().build())
+            .onErrorResume(e -> {
+              if (isClientError(e)) {
+                return Mono.just(ResponseEntity.status(((WebClientResponseException) e).getStatusCode()).build());
+              }
+              if (e instanceof UpstreamUnavailableException) {
+                return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+              }
+              return Mono.just(ResponseEntity.internalServerError().build());
+            });
+  }
+
+  /**
+   * Compares the daylight hours between two cities and returns which city has the longest day.
+   *
+   * @param city1 The name of the first city
+   * @param city2 The name of the second city
+   * @return Mono of a ResponseEntity containing a simple statement of which city has the longest day
+   */
+  @GetMapping("/reactive/compare-daylight/{city1}/{city2}")
+  public Mono<ResponseEntity<String>> compareDaylightHours(
+          @PathVariable("city1") String city1,
+          @PathVariable("city2") String city2) {
+
+    if (city1 == null || city2 == null ||
+            city1.trim().isEmpty() || city2.trim().isEmpty()) {
+      return Mono.just(ResponseEntity.badRequest()
+              .body("City names cannot be empty"));
+    }
+
+    return Mono.zip(weatherService.forecastByCity(city1, FetchProfile.DAYLIGHT),
+                    weatherService.forecastByCity(city2, FetchProfile.DAYLIGHT))
+            .timeout(lookupTimeout)
+            .map(cities -> {
+              long minutes1 = WeatherController.daylightMinutes(cities.getT1(), city1);
+              long minutes2 = WeatherController.daylightMinutes(cities.getT2(), city2);
+              return WeatherController.formatDaylightResponse(city1, city2, minutes1, minutes2);
+            })
+            .defaultIfEmpty(ResponseEntity.notFound().build())
+            .onErrorResume(ReactiveWeatherController::errorResponse);
+  }
+
+  /**
+   * Checks and compares the current rain conditions between two cities.
+   *
+   * @param city1 The name of the first city
+   * @param city2 The name of the second city
+   * @return Mono of a ResponseEntity containing a statement of where it is raining
+   */
+  @GetMapping("/reactive/check-rain/{city1}/{city2}")
+  public Mono<ResponseEntity<String>> checkRain(
+          @PathVariable("city1") String city1,
+          @PathVariable("city2") String city2) {
+
+    if (city1 == null || city2 == null ||
+            city1.trim().isEmpty() || city2.trim().isEmpty()) {
+      return Mono.just(ResponseEntity.badRequest()
+              .body("City names cannot be empty"));
+    }
+
+    return Mono.zip(weatherService.forecastByCity(city1, FetchProfile.RAIN),
+                    weatherService.forecastByCity(city2, FetchProfile.RAIN))
+            .timeout(lookupTimeout)
+            .map(cities -> {
+              boolean isRaining1 = WeatherController.isRaining(WeatherController.getWeatherConditions(cities.getT1()));
+              boolean isRaining2 = WeatherController.isRaining(WeatherController.getWeatherConditions(cities.getT2()));
+              return WeatherController.formatRainResponse(city1, city2, isRaining1, isRaining2);
+            })
+            .defaultIfEmpty(ResponseEntity.notFound().build())
+            .onErrorResume(ReactiveWeatherController::errorResponse);
+  }
+
+  /**
+   * Maps a failed two-city lookup to the same status and message the blocking endpoints use.
+   */
+  private static Mono<ResponseEntity<String>> errorResponse(Throwable e) {
+    if (isClientError(e)) {
+      WebClientResponseException responseException = (WebClientResponseException) e;
+      return Mono.just(ResponseEntity.status(responseException.getStatusCode())
+              .body("Error accessing weather data: " + responseException.getMessage()));
+    }
+    if (e instanceof TimeoutException) {
+      return Mono.just(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+              .body("Timed out waiting for weather data"));
+    }
+    if (e instanceof UpstreamUnavailableException) {
+      return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+              .body("Weather data is temporarily unavailable"));
+    }
+    return Mono.just(ResponseEntity.internalServerError()
+            .body("An unexpected error occurred: " + e.getMessage()));
+  }
+
+  /**
+   * Upstream 4xx responses are passed through as-is, mirroring HttpClientErrorException handling
+   * on the blocking path; everything else is reported as an internal error.
+   */
+  private static boolean isClientError(Throwable e) {
+    return e instanceof WebClientResponseException responseException
+            && responseException.getStatusCode().is4xxClientError();
+  }
+}
@@ -1,20 +1,27 @@
 package com.weatherapp.myweatherapp.controller;
 
 import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import com.weatherapp.myweatherapp.repository.UpstreamUnavailableException;
 import com.weatherapp.myweatherapp.service.WeatherService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.client.HttpClientErrorException;
-import java.lang.reflect.Field;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Controller handling weather-related endpoints for the Weather Application.
@@ -27,14 +34,23 @@ public class WeatherController {
   @Autowired
   private WeatherService weatherService;
 
+  /** Executor used to look up both cities of the two-city endpoints concurrently */
+  @Autowired
+  @Qualifier("weatherLookupExecutor")
+  private Executor lookupExecutor;
+
+  /** Combined deadline for both lookups of a two-city endpoint */
+  @Value("${weather.lookup.timeout:10s}")
+  private Duration lookupTimeout;
+
   /** Set of terms that indicate rain conditions in weather descriptions */
   private static final Set<String> RAIN_CONDITIONS = new HashSet<>(Arrays.asList(
           "rain", "drizzle", "shower", "thunderstorm", "precipitation",
           "downpour", "rainfall", "raining", "stormy"
   ));
 
-  /** Formatter for parsing time strings from the weather API */
-  private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+  /** RAIN_CONDITIONS compiled for single-pass, case-insensitive matching */
+  private static final RainMatcher RAIN_MATCHER = new RainMatcher(RAIN_CONDITIONS);
 
   /**
    * Retrieves the weather forecast for a specified city.
@@ -52,6 +68,8 @@ public class WeatherController {
       return ResponseEntity.ok(ci);
     } catch (HttpClientErrorException e) {
       return ResponseEntity.status(e.getStatusCode()).build();
+    } catch (UpstreamUnavailableException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
     } catch (Exception e) {
       return ResponseEntity.internalServerError().build();
     }
@@ -77,25 +95,29 @@ public class WeatherController {
     }
 
     try {
-      CityInfo city1Info = weatherService.forecastByCity(city1);
-      CityInfo city2Info = weatherService.forecastByCity(city2);
+      CityPair cities = fetchBoth(city1, city2, FetchProfile.DAYLIGHT);
+      CityInfo city1Info = cities.first();
+      CityInfo city2Info = cities.second();
 
       if (city1Info == null || city2Info == null) {
         return ResponseEntity.notFound()
                 .build();
       }
 
-      DaylightInfo daylight1 = extractDaylightInfo(city1Info, city1);
-      DaylightInfo daylight2 = extractDaylightInfo(city2Info, city2);
-
-      long minutes1 = daylight1.getDaylightMinutes();
-      long minutes2 = daylight2.getDaylightMinutes();
+      long minutes1 = daylightMinutes(city1Info, city1);
+      long minutes2 = daylightMinutes(city2Info, city2);
 
       return formatDaylightResponse(city1, city2, minutes1, minutes2);
 
     } catch (HttpClientErrorException e) {
       return ResponseEntity.status(e.getStatusCode())
               .body("Error accessing weather data: " + e.getMessage());
+    } catch (TimeoutException e) {
+      return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+              .body("Timed out waiting for weather data");
+    } catch (UpstreamUnavailableException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+              .body("Weather data is temporarily unavailable");
     } catch (Exception e) {
       return ResponseEntity.internalServerError()
               .body("An unexpected error occurred: " + e.getMessage());
@@ -122,8 +144,9 @@ public class WeatherController {
     }
 
     try {
-      CityInfo city1Info = weatherService.forecastByCity(city1);
-      CityInfo city2Info = weatherService.forecastByCity(city2);
+      CityPair cities = fetchBoth(city1, city2, FetchProfile.RAIN);
+      CityInfo city1Info = cities.first();
+      CityInfo city2Info = cities.second();
 
       if (city1Info == null || city2Info == null) {
         return ResponseEntity.notFound()
@@ -136,19 +159,17 @@ public class WeatherController {
       boolean isRaining1 = isRaining(conditions1);
       boolean isRaining2 = isRaining(conditions2);
 
-      if (isRaining1 && isRaining2) {
-        return ResponseEntity.ok("It is raining in both " + city1 + " and " + city2);
-      } else if (isRaining1) {
-        return ResponseEntity.ok("It is raining in " + city1);
-      } else if (isRaining2) {
-        return ResponseEntity.ok("It is raining in " + city2);
-      } else {
-        return ResponseEntity.ok("It is not raining in either city");
-      }
+      return formatRainResponse(city1, city2, isRaining1, isRaining2);
 
     } catch (HttpClientErrorException e) {
       return ResponseEntity.status(e.getStatusCode())
               .body("Error accessing weather data: " + e.getMessage());
+    } catch (TimeoutException e) {
+      return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+              .body("Timed out waiting for weather data");
+    } catch (UpstreamUnavailableException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+              .body("Weather data is temporarily unavailable");
     } catch (Exception e) {
       return ResponseEntity.internalServerError()
               .body("An unexpected error occurred: " + e.getMessage());
@@ -156,58 +177,130 @@ public class WeatherController {
   }
 
   /**
-   * Extracts sunrise and sunset times from the CityInfo object using reflection.
+   * Looks up two cities concurrently on the lookup executor so the caller waits for the slower
+   * of the two lookups rather than their sum. Both lookups share a single deadline.
+   *
+   * @param city1 The name of the first city
+   * @param city2 The name of the second city
+   * @param profile The sections of the forecast the endpoint needs
+   * @return CityPair holding the forecasts in argument order
+   * @throws TimeoutException if both lookups have not completed before the deadline
+   * @throws InterruptedException if the calling thread is interrupted while waiting
+   */
+  private CityPair fetchBoth(String city1, String city2, FetchProfile profile) throws TimeoutException, InterruptedException {
+    long deadline = System.nanoTime() + lookupTimeout.toNanos();
+    CompletableFuture<CityInfo> first =
+            CompletableFuture.supplyAsync(() -> weatherService.forecastByCity(city1, profile), lookupExecutor);
+    CompletableFuture<CityInfo> second =
+            CompletableFuture.supplyAsync(() -> weatherService.forecastByCity(city2, profile), lookupExecutor);
+
+    try {
+      CityInfo city1Info = awaitLookup(first, deadline);
+      CityInfo city2Info = awaitLookup(second, deadline);
+      return new CityPair(city1Info, city2Info);
+    } finally {
+      first.cancel(false);
+      second.cancel(false);
+    }
+  }
+
+  /**
+   * Waits for a lookup until the given deadline, rethrowing the lookup's own exception
+   * so callers see the same errors as a direct service call.
+   */
+  private static CityInfo awaitLookup(CompletableFuture<CityInfo> lookup, long deadline)
+          throws TimeoutException, InterruptedException {
+    try {
+      return lookup.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Extracts sunrise and sunset times from the current conditions of a CityInfo object.
    *
    * @param cityInfo The CityInfo object containing weather data
    * @param cityName The name of the city (used for error messages)
-   * @return DaylightInfo object containing parsed sunrise and sunset times
-   * @throws Exception if data cannot be extracted or is invalid
+   * @return DaylightInfo object containing the sunrise and sunset times
+   * @throws IllegalStateException if the current conditions or sunrise/sunset times are missing
    */
-  private DaylightInfo extractDaylightInfo(CityInfo cityInfo, String cityName) throws Exception {
-    Field conditionsField = cityInfo.getClass().getDeclaredField("currentConditions");
-    conditionsField.setAccessible(true);
-    Object conditions = conditionsField.get(cityInfo);
+  static DaylightInfo extractDaylightInfo(CityInfo cityInfo, String cityName) {
+    CityInfo.CurrentConditions conditions = daylightConditions(cityInfo, cityName);
+    return new DaylightInfo(conditions.sunrise(), conditions.sunset());
+  }
 
-    if (conditions == null) {
-      throw new RuntimeException("No weather conditions available for " + cityName);
+  /**
+   * Calculates the minutes of daylight in a city's current conditions without allocating.
+   *
+   * @param cityInfo The CityInfo object containing weather data
+   * @param cityName The name of the city (used for error messages)
+   * @return The number of minutes between sunrise and sunset
+   * @throws IllegalStateException if the current conditions or sunrise/sunset times are missing
+   */
+  static long daylightMinutes(CityInfo cityInfo, String cityName) {
+    CityInfo.CurrentConditions conditions = daylightConditions(cityInfo, cityName);
+    return daylightMinutes(conditions.sunrise(), conditions.sunset());
+  }
+
+  /**
+   * Calculates the whole minutes from sunrise to sunset, both given as seconds of the day.
+   * A sunset earlier in the day than sunrise is taken to fall on the next day.
+   * This matches ChronoUnit.MINUTES.between on the equivalent LocalTimes, which truncates
+   * partial minutes towards zero before the next-day correction is applied.
+   *
+   * @param sunrise The sunrise time as a second of the day
+   * @param sunset The sunset time as a second of the day
+   * @return The number of minutes between sunrise and sunset
+   */
+  static long daylightMinutes(int sunrise, int sunset) {
+    long minutes = (sunset - sunrise) / 60;
+    // Handle case where sunset is on the next day
+    if (minutes < 0) {
+      minutes += 24 * 60;
     }
+    return minutes;
+  }
 
-    Field sunriseField = conditions.getClass().getDeclaredField("sunrise");
-    Field sunsetField = conditions.getClass().getDeclaredField("sunset");
-    sunriseField.setAccessible(true);
-    sunsetField.setAccessible(true);
+  /**
+   * Returns the current conditions of a CityInfo object, checking that they carry sunrise and
+   * sunset times.
+   */
+  private static CityInfo.CurrentConditions daylightConditions(CityInfo cityInfo, String cityName) {
+    CityInfo.CurrentConditions conditions = cityInfo.getCurrentConditions();
 
-    String sunrise = (String) sunriseField.get(conditions);
-    String sunset = (String) sunsetField.get(conditions);
+    if (conditions == null) {
+      throw new IllegalStateException("No weather conditions available for " + cityName);
+    }
 
-    if (sunrise == null || sunset == null) {
-      throw new RuntimeException("Missing sunrise/sunset data for " + cityName);
+    if (conditions.sunrise() == CityInfo.MISSING_TIME || conditions.sunset() == CityInfo.MISSING_TIME) {
+      throw new IllegalStateException("Missing sunrise/sunset data for " + cityName);
     }
 
-    return new DaylightInfo(sunrise, sunset);
+    return conditions;
   }
 
   /**
-   * Extracts current weather conditions from the CityInfo object using reflection.
+   * Extracts current weather conditions from the CityInfo object.
    *
    * @param cityInfo The CityInfo object containing weather data
    * @return String describing current weather conditions, or "Unknown" if not available
-   * @throws Exception if data cannot be extracted
    */
-  private String getWeatherConditions(CityInfo cityInfo) throws Exception {
-    Field conditionsField = cityInfo.getClass().getDeclaredField("currentConditions");
-    conditionsField.setAccessible(true);
-    Object conditions = conditionsField.get(cityInfo);
+  static String getWeatherConditions(CityInfo cityInfo) {
+    CityInfo.CurrentConditions conditions = cityInfo.getCurrentConditions();
 
-    if (conditions == null) {
+    if (conditions == null || conditions.conditions() == null) {
       return "Unknown";
     }
 
-    Field weatherConditionsField = conditions.getClass().getDeclaredField("conditions");
-    weatherConditionsField.setAccessible(true);
-    String weatherConditions = (String) weatherConditionsField.get(conditions);
-
-    return weatherConditions != null ? weatherConditions : "Unknown";
+    return conditions.conditions();
   }
 
   /**
@@ -219,8 +312,8 @@ public class WeatherController {
    * @param minutes2 Daylight minutes for the second city
    * @return ResponseEntity containing formatted comparison
    */
-  private ResponseEntity<String> formatDaylightResponse(String city1, String city2,
-                                                        long minutes1, long minutes2) {
+  static ResponseEntity<String> formatDaylightResponse(String city1, String city2,
+                                                       long minutes1, long minutes2) {
     if (minutes1 > minutes2) {
       return ResponseEntity.ok(city1 + " has the longest day");
     } else if (minutes2 > minutes1) {
@@ -230,36 +323,61 @@ public class WeatherController {
     }
   }
 
+  /**
+   * Formats the rain check response according to requirements.
+   *
+   * @param city1 Name of the first city
+   * @param city2 Name of the second city
+   * @param isRaining1 Whether it is raining in the first city
+   * @param isRaining2 Whether it is raining in the second city
+   * @return ResponseEntity containing a statement of where it is raining
+   */
+  static ResponseEntity<String> formatRainResponse(String city1, String city2,
+                                                   boolean isRaining1, boolean isRaining2) {
+    if (isRaining1 && isRaining2) {
+      return ResponseEntity.ok("It is raining in both " + city1 + " and " + city2);
+    } else if (isRaining1) {
+      return ResponseEntity.ok("It is raining in " + city1);
+    } else if (isRaining2) {
+      return ResponseEntity.ok("It is raining in " + city2);
+    } else {
+      return ResponseEntity.ok("It is not raining in either city");
+    }
+  }
+
   /**
    * Checks if the given weather conditions indicate rain.
    *
    * @param conditions The weather conditions string to check
    * @return true if the conditions indicate rain, false otherwise
    */
-  private boolean isRaining(String conditions) {
-    if (conditions == null) return false;
-    String lowerConditions = conditions.toLowerCase();
-    return RAIN_CONDITIONS.stream()
-            .anyMatch(lowerConditions::contains);
+  static boolean isRaining(String conditions) {
+    return RAIN_MATCHER.matches(conditions);
+  }
+
+  /**
+   * Forecasts for the two cities of a comparison endpoint, in request order.
+   */
+  private record CityPair(CityInfo first, CityInfo second) {
   }
 
   /**
    * Inner class for handling daylight information and calculations.
    * Stores sunrise and sunset times and provides methods for calculating daylight duration.
    */
-  private static class DaylightInfo {
-    private final LocalTime sunrise;
-    private final LocalTime sunset;
+  static class DaylightInfo {
+    private final int sunrise;
+    private final int sunset;
 
     /**
-     * Creates a new DaylightInfo instance from sunrise and sunset time strings.
+     * Creates a new DaylightInfo instance from sunrise and sunset times.
      *
-     * @param sunrise The sunrise time in HH:mm:ss format
-     * @param sunset The sunset time in HH:mm:ss format
+     * @param sunrise The sunrise time as a second of the day
+     * @param sunset The sunset time as a second of the day
      */
-    DaylightInfo(String sunrise, String sunset) {
-      this.sunrise = LocalTime.parse(sunrise, TIME_FORMATTER);
-      this.sunset = LocalTime.parse(sunset, TIME_FORMATTER);
+    DaylightInfo(int sunrise, int sunset) {
+      this.sunrise = sunrise;
+      this.sunset = sunset;
     }
 
     /**
@@ -269,12 +387,7 @@ public class WeatherController {
      * @return The number of minutes between sunrise and sunset
      */
     long getDaylightMinutes() {
-      long minutes = ChronoUnit.MINUTES.between(sunrise, sunset);
-      // Handle case where sunset is on the next day
-      if (minutes < 0) {
-        minutes += 24 * 60;
-      }
-      return minutes;
+      return daylightMinutes(sunrise, sunset);
     }
   }
-}
\ No newline at end of file
+}
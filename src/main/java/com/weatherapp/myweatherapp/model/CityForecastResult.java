@@ -0,0 +1,23 @@
+package com.weatherapp.myweatherapp.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Outcome of looking up one city within a batch request. Successful lookups carry the forecast,
+ * failed ones carry the HTTP status and message the single-city endpoint would have produced.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CityForecastResult(
+        @JsonProperty("status") int status,
+        @JsonProperty("forecast") CityInfo forecast,
+        @JsonProperty("error") String error) {
+
+  public static CityForecastResult success(CityInfo forecast) {
+    return new CityForecastResult(200, forecast, null);
+  }
+
+  public static CityForecastResult failure(int status, String error) {
+    return new CityForecastResult(status, null, error);
+  }
+}
@@ -1,62 +1,142 @@
 package com.weatherapp.myweatherapp.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.weatherapp.myweatherapp.model.WeatherValueJson.CityInfoDeserializer;
+import com.weatherapp.myweatherapp.model.WeatherValueJson.CurrentConditionsDeserializer;
+import com.weatherapp.myweatherapp.model.WeatherValueJson.DaysDeserializer;
+import com.weatherapp.myweatherapp.model.WeatherValueJson.MeasurementSerializer;
+import com.weatherapp.myweatherapp.model.WeatherValueJson.TimeOfDaySerializer;
 import java.util.List;
 
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonDeserialize(using = CityInfoDeserializer.class)
 public class CityInfo {
 
+  /** Value of a temperature or humidity that Visual Crossing did not report */
+  public static final double MISSING_MEASUREMENT = Double.NaN;
+
+  /** Value of a sunrise or sunset time that Visual Crossing did not report */
+  public static final int MISSING_TIME = -1;
+
   @JsonProperty("address")
-  String address;
+  private String address;
+
+  /** Full location name Visual Crossing matched the address to, e.g. "London, England, United Kingdom" */
+  @JsonProperty("resolvedAddress")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String resolvedAddress;
 
   @JsonProperty("description")
-  String description;
+  private String description;
 
   @JsonProperty("currentConditions")
-  CurrentConditions currentConditions;
+  private CurrentConditions currentConditions;
 
   @JsonProperty("days")
-  List<Days> days;
+  private List<Days> days;
+
+  public CityInfo() {
+  }
+
+  @JsonCreator(mode = JsonCreator.Mode.DISABLED)
+  public CityInfo(String address, String description, CurrentConditions currentConditions, List<Days> days) {
+    this(address, null, description, currentConditions, days);
+  }
 
-  static class CurrentConditions {
-    @JsonProperty("temp")
-    String currentTemperature;
+  @JsonCreator(mode = JsonCreator.Mode.DISABLED)
+  public CityInfo(String address, String resolvedAddress, String description,
+                  CurrentConditions currentConditions, List<Days> days) {
+    this.address = address;
+    this.resolvedAddress = resolvedAddress;
+    this.description = description;
+    this.currentConditions = currentConditions;
+    this.days = days;
+  }
 
-    @JsonProperty("sunrise")
-    String sunrise;
+  public String getAddress() {
+    return address;
+  }
 
-    @JsonProperty("sunset")
-    String sunset;
+  public String getResolvedAddress() {
+    return resolvedAddress;
+  }
 
-    @JsonProperty("feelslike")
-    String feelslike;
+  public String getDescription() {
+    return description;
+  }
 
-    @JsonProperty("humidity")
-    String humidity;
+  public CurrentConditions getCurrentConditions() {
+    return currentConditions;
+  }
 
-    @JsonProperty("conditions")
-    String conditions;
+  public List<Days> getDays() {
+    return days;
   }
 
-  static class Days {
+  public static boolean isMissing(double measurement) {
+    return Double.isNaN(measurement);
+  }
 
-    @JsonProperty("datetime")
-    String date;
+  /**
+   * Current conditions. Temperatures and humidity are parsed once into doubles and sunrise and
+   * sunset into seconds of the day; they are written back as strings to keep the API's JSON shape.
+   */
+  @JsonDeserialize(using = CurrentConditionsDeserializer.class)
+  public record CurrentConditions(
+          @JsonProperty("temp")
+          @JsonSerialize(using = MeasurementSerializer.class)
+          double currentTemperature,
+
+          @JsonProperty("sunrise")
+          @JsonSerialize(using = TimeOfDaySerializer.class)
+          int sunrise,
+
+          @JsonProperty("sunset")
+          @JsonSerialize(using = TimeOfDaySerializer.class)
+          int sunset,
+
+          @JsonProperty("feelslike")
+          @JsonSerialize(using = MeasurementSerializer.class)
+          double feelslike,
+
+          @JsonProperty("humidity")
+          @JsonSerialize(using = MeasurementSerializer.class)
+          double humidity,
+
+          @JsonProperty("conditions")
+          String conditions) {
+  }
 
-    @JsonProperty("temp")
-    String currentTemperature;
+  /**
+   * Daily forecast. Temperatures are parsed once into doubles, as in CurrentConditions.
+   */
+  @JsonDeserialize(using = DaysDeserializer.class)
+  public record Days(
+          @JsonProperty("datetime")
+          String date,
 
-    @JsonProperty("tempmax")
-    String maxTemperature;
+          @JsonProperty("temp")
+          @JsonSerialize(using = MeasurementSerializer.class)
+          double currentTemperature,
 
-    @JsonProperty("tempmin")
-    String minTemperature;
+          @JsonProperty("tempmax")
+          @JsonSerialize(using = MeasurementSerializer.class)
+          double maxTemperature,
 
-    @JsonProperty("conditions")
-    String conditions;
+          @JsonProperty("tempmin")
+          @JsonSerialize(using = MeasurementSerializer.class)
+          double minTemperature,
 
-    @JsonProperty("description")
-    String description;
+          @JsonProperty("conditions")
+          String conditions,
 
+          @JsonProperty("description")
+          String description) {
   }
 
-}
\ No newline at end of file
+}
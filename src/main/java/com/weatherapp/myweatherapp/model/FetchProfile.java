@@ -0,0 +1,51 @@
+package com.weatherapp.myweatherapp.model;
+
+/**
+ * Describes which parts of the Visual Crossing timeline a caller needs, so that requests can ask
+ * the API to leave out everything else. Narrow profiles only fetch current conditions and the
+ * elements their endpoint reads, which shrinks the response from a 15-day hourly timeline to a
+ * few hundred bytes.
+ */
+public enum FetchProfile {
+
+  /** The full timeline, as returned by /forecast/{city} */
+  FULL(null, null, 15),
+
+  /** Current sunrise and sunset, for the daylight comparison */
+  DAYLIGHT("current", "datetime,sunrise,sunset", 1),
+
+  /** Current conditions description, for the rain check */
+  RAIN("current", "datetime,conditions", 1);
+
+  private final String include;
+  private final String elements;
+  private final int records;
+
+  FetchProfile(String include, String elements, int records) {
+    this.include = include;
+    this.elements = elements;
+    this.records = records;
+  }
+
+  /**
+   * Returns the records Visual Crossing bills per location for a request with this profile: one
+   * per day of the 15-day forecast, or one for current conditions.
+   *
+   * @return The billed records per location
+   */
+  public int records() {
+    return records;
+  }
+
+  /**
+   * Returns the query parameters that restrict a timeline request to this profile.
+   *
+   * @return The parameters, each prefixed with '&', or an empty string for the full timeline
+   */
+  public String queryParameters() {
+    if (this == FULL) {
+      return "";
+    }
+    return "&include=" + include + "&elements=" + elements;
+  }
+}
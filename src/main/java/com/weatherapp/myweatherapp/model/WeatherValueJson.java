@@ -0,0 +1,383 @@
+package com.weatherapp.myweatherapp.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+
+/**
+ * Jackson codecs that bind Visual Crossing measurements and times of day into primitives once,
+ * at deserialization time, while writing them back in the string form the API has always returned.
+ * Missing values use the sentinels {@link CityInfo#MISSING_MEASUREMENT} and {@link CityInfo#MISSING_TIME}
+ * and are written as JSON null.
+ */
+public final class WeatherValueJson {
+
+  /** The only layout Visual Crossing reports times of day in */
+  private static final DateTimeFormatter TIME_OF_DAY =
+          DateTimeFormatter.ofPattern("HH:mm:ss").withResolverStyle(ResolverStyle.STRICT);
+
+  private WeatherValueJson() {
+  }
+
+  /**
+   * Parses a measurement from its string form.
+   *
+   * @param text The measurement text
+   * @return The measurement, or {@link CityInfo#MISSING_MEASUREMENT} if the text is blank
+   * @throws NumberFormatException if the text is not a number
+   */
+  public static double parseMeasurement(String text) {
+    String trimmed = text.trim();
+    return trimmed.isEmpty() ? CityInfo.MISSING_MEASUREMENT : Double.parseDouble(trimmed);
+  }
+
+  /**
+   * Parses an HH:mm:ss time of day into its second of the day. Times in exactly that layout are
+   * parsed digit by digit without allocating; anything else, such as padded text, goes through the
+   * strict HH:mm:ss formatter. A time in any other layout is treated as missing rather than
+   * failing, so an odd upstream value cannot fail the whole forecast.
+   *
+   * @param text The time text
+   * @return The second of the day, or {@link CityInfo#MISSING_TIME} if the text is blank or not
+   *         an HH:mm:ss time
+   */
+  public static int parseTimeOfDay(String text) {
+    if (text.length() == 8 && text.charAt(2) == ':' && text.charAt(5) == ':') {
+      int seconds = secondOfDay(text.charAt(0), text.charAt(1), text.charAt(3), text.charAt(4),
+              text.charAt(6), text.charAt(7));
+      if (seconds >= 0) {
+        return seconds;
+      }
+    }
+    String trimmed = text.trim();
+    if (trimmed.isEmpty()) {
+      return CityInfo.MISSING_TIME;
+    }
+    try {
+      return LocalTime.parse(trimmed, TIME_OF_DAY).toSecondOfDay();
+    } catch (DateTimeParseException e) {
+      return CityInfo.MISSING_TIME;
+    }
+  }
+
+  /**
+   * Parses a time of day held in a character buffer, such as a JSON parser's text buffer, so the
+   * common HH:mm:ss layout needs no String.
+   *
+   * @param chars The buffer holding the time text
+   * @param offset The index of the first character of the text
+   * @param length The length of the text
+   * @return The second of the day, or {@link CityInfo#MISSING_TIME} if the text is blank or not
+   *         an HH:mm:ss time
+   */
+  public static int parseTimeOfDay(char[] chars, int offset, int length) {
+    if (length == 8 && chars[offset + 2] == ':' && chars[offset + 5] == ':') {
+      int seconds = secondOfDay(chars[offset], chars[offset + 1], chars[offset + 3], chars[offset + 4],
+              chars[offset + 6], chars[offset + 7]);
+      if (seconds >= 0) {
+        return seconds;
+      }
+    }
+    return parseTimeOfDay(new String(chars, offset, length));
+  }
+
+  /**
+   * Combines the digits of an HH:mm:ss time into its second of the day.
+   *
+   * @return The second of the day, or -1 if a character is not a digit or a field is out of range
+   */
+  private static int secondOfDay(char h1, char h2, char m1, char m2, char s1, char s2) {
+    int hours = twoDigits(h1, h2);
+    int minutes = twoDigits(m1, m2);
+    int seconds = twoDigits(s1, s2);
+    if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59) {
+      return -1;
+    }
+    return hours * 3600 + minutes * 60 + seconds;
+  }
+
+  private static int twoDigits(char tens, char units) {
+    if (tens < '0' || tens > '9' || units < '0' || units > '9') {
+      return -1;
+    }
+    return (tens - '0') * 10 + (units - '0');
+  }
+
+  /**
+   * Reads a measurement given either as a JSON number or a numeric string, without boxing it.
+   *
+   * @param p The parser, positioned on the value
+   * @param ctxt The context used to report invalid values
+   * @return The measurement, or {@link CityInfo#MISSING_MEASUREMENT} if it is null or blank
+   */
+  static double readMeasurement(JsonParser p, DeserializationContext ctxt) throws IOException {
+    JsonToken token = p.currentToken();
+    if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+      return p.getDoubleValue();
+    }
+    if (token == JsonToken.VALUE_NULL) {
+      return CityInfo.MISSING_MEASUREMENT;
+    }
+    if (token == JsonToken.VALUE_STRING) {
+      String text = p.getText();
+      try {
+        return parseMeasurement(text);
+      } catch (NumberFormatException e) {
+        throw ctxt.weirdStringException(text, double.class, "not a valid measurement");
+      }
+    }
+    throw ctxt.wrongTokenException(p, double.class, JsonToken.VALUE_NUMBER_FLOAT, "expected a measurement");
+  }
+
+  /**
+   * Reads an HH:mm:ss time of day into its second of the day, without boxing it.
+   *
+   * @param p The parser, positioned on the value
+   * @param ctxt The context used to report invalid values
+   * @return The second of the day, or {@link CityInfo#MISSING_TIME} if it is null, blank or not
+   *         an HH:mm:ss time
+   */
+  static int readTimeOfDay(JsonParser p, DeserializationContext ctxt) throws IOException {
+    JsonToken token = p.currentToken();
+    if (token == JsonToken.VALUE_NULL) {
+      return CityInfo.MISSING_TIME;
+    }
+    if (token != JsonToken.VALUE_STRING) {
+      throw ctxt.wrongTokenException(p, int.class, JsonToken.VALUE_STRING, "expected an HH:mm:ss time");
+    }
+    return parseTimeOfDay(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+  }
+
+  /**
+   * Reads a text field, skipping a structured value in its place.
+   *
+   * @return The text, or null if the value is null or not a scalar
+   */
+  private static String readText(JsonParser p) throws IOException {
+    if (!p.currentToken().isScalarValue()) {
+      p.skipChildren();
+      return null;
+    }
+    return p.getValueAsString();
+  }
+
+  /**
+   * Formats a measurement the way the API reports it: integral values without a fraction, and
+   * never in exponent form.
+   *
+   * @param value The measurement, which must not be missing
+   * @return The measurement text
+   */
+  public static String formatMeasurement(double value) {
+    if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      return Long.toString((long) value);
+    }
+    if (Double.isInfinite(value)) {
+      return Double.toString(value);
+    }
+    return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+  }
+
+  /**
+   * Moves a record deserializer onto its first field, accepting the parser positioned either on
+   * the object's START_OBJECT or already on a field.
+   */
+  private static JsonToken firstField(JsonParser p, DeserializationContext ctxt, Class<?> type) throws IOException {
+    JsonToken token = p.currentToken();
+    if (token == JsonToken.START_OBJECT) {
+      return p.nextToken();
+    }
+    if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+      throw ctxt.wrongTokenException(p, type, JsonToken.START_OBJECT, null);
+    }
+    return token;
+  }
+
+  /**
+   * Reads a timeline response field by field, handing the current conditions and each day to
+   * their record deserializers. Everything CityInfo does not keep, such as stations, alerts and
+   * the hourly data of every day, is skipped token by token without being materialized. This is
+   * the only binding of timeline responses: the streaming converter for Visual Crossing and
+   * Jackson databind, such as the forecast store, both go through it.
+   */
+  public static class CityInfoDeserializer extends StdDeserializer<CityInfo> {
+
+    private final CurrentConditionsDeserializer currentConditionsDeserializer = new CurrentConditionsDeserializer();
+    private final DaysDeserializer daysDeserializer = new DaysDeserializer();
+
+    public CityInfoDeserializer() {
+      super(CityInfo.class);
+    }
+
+    @Override
+    public CityInfo deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      String address = null;
+      String resolvedAddress = null;
+      String description = null;
+      CityInfo.CurrentConditions currentConditions = null;
+      List<CityInfo.Days> days = null;
+
+      for (JsonToken token = firstField(p, ctxt, handledType()); token == JsonToken.FIELD_NAME;
+           token = p.nextToken()) {
+        String field = p.currentName();
+        JsonToken value = p.nextToken();
+        switch (field) {
+          case "address" -> address = readText(p);
+          case "resolvedAddress" -> resolvedAddress = readText(p);
+          case "description" -> description = readText(p);
+          case "currentConditions" -> currentConditions = value == JsonToken.START_OBJECT
+                  ? currentConditionsDeserializer.deserialize(p, ctxt) : skip(p);
+          case "days" -> days = value == JsonToken.START_ARRAY ? readDays(p, ctxt) : skip(p);
+          default -> p.skipChildren();
+        }
+      }
+      return new CityInfo(address, resolvedAddress, description, currentConditions, days);
+    }
+
+    /**
+     * Reads the days array, skipping entries that are not objects.
+     */
+    private List<CityInfo.Days> readDays(JsonParser p, DeserializationContext ctxt) throws IOException {
+      List<CityInfo.Days> days = new ArrayList<>();
+      JsonToken token;
+      while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+        if (token == JsonToken.START_OBJECT) {
+          days.add(daysDeserializer.deserialize(p, ctxt));
+        } else {
+          p.skipChildren();
+        }
+      }
+      return days;
+    }
+
+    private static <T> T skip(JsonParser p) throws IOException {
+      p.skipChildren();
+      return null;
+    }
+  }
+
+  /**
+   * Reads current conditions field by field, so measurements and times go straight into the
+   * record's primitive components. Fields the record does not keep are skipped.
+   */
+  public static class CurrentConditionsDeserializer extends StdDeserializer<CityInfo.CurrentConditions> {
+
+    public CurrentConditionsDeserializer() {
+      super(CityInfo.CurrentConditions.class);
+    }
+
+    @Override
+    public CityInfo.CurrentConditions deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      double temp = CityInfo.MISSING_MEASUREMENT;
+      double feelslike = CityInfo.MISSING_MEASUREMENT;
+      double humidity = CityInfo.MISSING_MEASUREMENT;
+      int sunrise = CityInfo.MISSING_TIME;
+      int sunset = CityInfo.MISSING_TIME;
+      String conditions = null;
+
+      for (JsonToken token = firstField(p, ctxt, handledType()); token == JsonToken.FIELD_NAME;
+           token = p.nextToken()) {
+        String field = p.currentName();
+        p.nextToken();
+        switch (field) {
+          case "temp" -> temp = readMeasurement(p, ctxt);
+          case "feelslike" -> feelslike = readMeasurement(p, ctxt);
+          case "humidity" -> humidity = readMeasurement(p, ctxt);
+          case "sunrise" -> sunrise = readTimeOfDay(p, ctxt);
+          case "sunset" -> sunset = readTimeOfDay(p, ctxt);
+          case "conditions" -> conditions = readText(p);
+          default -> p.skipChildren();
+        }
+      }
+      return new CityInfo.CurrentConditions(temp, sunrise, sunset, feelslike, humidity, conditions);
+    }
+  }
+
+  /**
+   * Reads a daily forecast field by field, so temperatures go straight into the record's
+   * primitive components. Fields the record does not keep, such as the hours, are skipped.
+   */
+  public static class DaysDeserializer extends StdDeserializer<CityInfo.Days> {
+
+    public DaysDeserializer() {
+      super(CityInfo.Days.class);
+    }
+
+    @Override
+    public CityInfo.Days deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      String date = null;
+      double temp = CityInfo.MISSING_MEASUREMENT;
+      double tempmax = CityInfo.MISSING_MEASUREMENT;
+      double tempmin = CityInfo.MISSING_MEASUREMENT;
+      String conditions = null;
+      String description = null;
+
+      for (JsonToken token = firstField(p, ctxt, handledType()); token == JsonToken.FIELD_NAME;
+           token = p.nextToken()) {
+        String field = p.currentName();
+        p.nextToken();
+        switch (field) {
+          case "datetime" -> date = readText(p);
+          case "temp" -> temp = readMeasurement(p, ctxt);
+          case "tempmax" -> tempmax = readMeasurement(p, ctxt);
+          case "tempmin" -> tempmin = readMeasurement(p, ctxt);
+          case "conditions" -> conditions = readText(p);
+          case "description" -> description = readText(p);
+          default -> p.skipChildren();
+        }
+      }
+      return new CityInfo.Days(date, temp, tempmax, tempmin, conditions, description);
+    }
+  }
+
+  /**
+   * Writes a measurement as a string in the form of {@link #formatMeasurement}, or null when it is
+   * missing.
+   */
+  public static class MeasurementSerializer extends StdSerializer<Double> {
+
+    public MeasurementSerializer() {
+      super(Double.class);
+    }
+
+    @Override
+    public void serialize(Double value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      if (CityInfo.isMissing(value)) {
+        gen.writeNull();
+      } else {
+        gen.writeString(formatMeasurement(value));
+      }
+    }
+  }
+
+  /**
+   * Writes a second of the day as an HH:mm:ss string, or null when it is missing.
+   */
+  public static class TimeOfDaySerializer extends StdSerializer<Integer> {
+
+    public TimeOfDaySerializer() {
+      super(Integer.class);
+    }
+
+    @Override
+    public void serialize(Integer value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      if (value == CityInfo.MISSING_TIME) {
+        gen.writeNull();
+      } else {
+        gen.writeString(String.format("%02d:%02d:%02d", value / 3600, value / 60 % 60, value % 60));
+      }
+    }
+  }
+}
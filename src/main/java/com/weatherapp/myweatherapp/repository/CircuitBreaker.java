@@ -0,0 +1,186 @@
+package com.weatherapp.myweatherapp.repository;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker over the most recent upstream calls.
+ *
+ * <p>While CLOSED every call is permitted and its outcome is kept in a ring of the last
+ * {@code windowSize} calls. Once at least {@code minimumCalls} are recorded and the share of
+ * failed calls or of slow calls reaches its threshold, the breaker OPENs and rejects calls for
+ * {@code openDuration}. It then turns HALF_OPEN and lets {@code halfOpenCalls} probe calls
+ * through: if their failure and slow-call rates stay under the thresholds the breaker closes
+ * with an empty window, otherwise it opens again.
+ *
+ * <p>Each permitted call carries a {@link Permit} naming the state it was let through in, and only
+ * outcomes of calls permitted in the current state count. A call let through before the breaker
+ * opened that finishes while it is half-open is therefore ignored rather than taken for a probe,
+ * so only the {@code halfOpenCalls} probes decide whether the breaker closes.
+ *
+ * <p>Upstream calls take milliseconds, so the state is simply guarded by the instance lock.
+ */
+class CircuitBreaker {
+
+  enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private static final byte FAILED = 1;
+  private static final byte SLOW = 2;
+
+  private final int minimumCalls;
+  private final int halfOpenCalls;
+  private final double failureRateThreshold;
+  private final double slowCallRateThreshold;
+  private final long slowCallNanos;
+  private final long openNanos;
+  private final LongSupplier ticker;
+
+  /** Outcomes of the last calls as FAILED and SLOW flags, oldest overwritten first */
+  private final byte[] window;
+  private int next;
+  private int recorded;
+  private int failures;
+  private int slowCalls;
+
+  private State state = State.CLOSED;
+  /** Incremented on every change of state, so permits from an earlier state can be told apart */
+  private long generation;
+  private long openedAt;
+  private int probesPermitted;
+  private int probesRecorded;
+  private int probeFailures;
+  private int probeSlowCalls;
+
+  /**
+   * @param windowSize Number of recent calls the rates are computed over
+   * @param minimumCalls Calls that must be recorded before the breaker can open
+   * @param failureRateThreshold Percentage of failed calls that opens the breaker
+   * @param slowCallRateThreshold Percentage of slow calls that opens the breaker
+   * @param slowCallDuration Duration at or above which a call counts as slow
+   * @param openDuration How long the breaker rejects calls before probing
+   * @param halfOpenCalls Number of probe calls let through when half-open
+   * @param ticker Source of System.nanoTime()-style timestamps
+   */
+  CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, double slowCallRateThreshold,
+                 Duration slowCallDuration, Duration openDuration, int halfOpenCalls, LongSupplier ticker) {
+    if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize || halfOpenCalls <= 0) {
+      throw new IllegalArgumentException(
+              "window-size, minimum-calls and half-open-calls must be positive, with minimum-calls <= window-size");
+    }
+    this.window = new byte[windowSize];
+    this.minimumCalls = minimumCalls;
+    this.failureRateThreshold = failureRateThreshold;
+    this.slowCallRateThreshold = slowCallRateThreshold;
+    this.slowCallNanos = slowCallDuration.toNanos();
+    this.openNanos = openDuration.toNanos();
+    this.halfOpenCalls = halfOpenCalls;
+    this.ticker = ticker;
+  }
+
+  /**
+   * Asks for permission to make a call. Every permitted call must be followed by
+   * {@link #record} with the permit returned here.
+   *
+   * @return The permit for the call, or null if it may not go ahead
+   */
+  synchronized Permit tryAcquire() {
+    if (state == State.OPEN) {
+      if (ticker.getAsLong() - openedAt < openNanos) {
+        return null;
+      }
+      state = State.HALF_OPEN;
+      generation++;
+      probesPermitted = 0;
+      probesRecorded = 0;
+      probeFailures = 0;
+      probeSlowCalls = 0;
+    }
+    if (state == State.HALF_OPEN) {
+      if (probesPermitted >= halfOpenCalls) {
+        return null;
+      }
+      probesPermitted++;
+    }
+    return new Permit(generation);
+  }
+
+  /**
+   * Records the outcome of a permitted call. Calls permitted before the last change of state are
+   * ignored: their state's outcome has already been decided.
+   *
+   * @param permit The permit the call was given
+   * @param durationNanos How long the call took
+   * @param failed Whether the call failed in a way that reflects on upstream health
+   */
+  synchronized void record(Permit permit, long durationNanos, boolean failed) {
+    if (permit.generation != generation) {
+      return;
+    }
+    boolean slow = durationNanos >= slowCallNanos;
+    if (state == State.HALF_OPEN) {
+      probesRecorded++;
+      probeFailures += failed ? 1 : 0;
+      probeSlowCalls += slow ? 1 : 0;
+      if (probesRecorded >= halfOpenCalls) {
+        if (exceedsThresholds(probeFailures, probeSlowCalls, probesRecorded)) {
+          open();
+        } else {
+          close();
+        }
+      }
+      return;
+    }
+
+    if (recorded == window.length) {
+      byte evicted = window[next];
+      failures -= evicted & FAILED;
+      slowCalls -= (evicted & SLOW) >> 1;
+    } else {
+      recorded++;
+    }
+    window[next] = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+    failures += failed ? 1 : 0;
+    slowCalls += slow ? 1 : 0;
+    next = (next + 1) % window.length;
+
+    if (recorded >= minimumCalls && exceedsThresholds(failures, slowCalls, recorded)) {
+      open();
+    }
+  }
+
+  synchronized State state() {
+    if (state == State.OPEN && ticker.getAsLong() - openedAt >= openNanos) {
+      return State.HALF_OPEN;
+    }
+    return state;
+  }
+
+  private boolean exceedsThresholds(int failed, int slow, int calls) {
+    return failed * 100.0 / calls >= failureRateThreshold || slow * 100.0 / calls >= slowCallRateThreshold;
+  }
+
+  private void open() {
+    state = State.OPEN;
+    generation++;
+    openedAt = ticker.getAsLong();
+  }
+
+  private void close() {
+    state = State.CLOSED;
+    generation++;
+    next = 0;
+    recorded = 0;
+    failures = 0;
+    slowCalls = 0;
+  }
+
+  /**
+   * Permission for one call, valid for the state it was given in.
+   *
+   * @param generation The state the call was permitted in
+   */
+  record Permit(long generation) {
+  }
+}
@@ -0,0 +1,156 @@
+package com.weatherapp.myweatherapp.repository;
+
+import com.weatherapp.myweatherapp.model.CityInfo;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Groups city lookups that arrive within a short window into a single upstream call.
+ * A batch is sent once it holds {@code maxBatchSize} distinct cities or {@code maxWait} after
+ * its first city arrived, whichever comes first. Each caller's future is completed with the
+ * forecast for its own city, or with the batch's exception if the upstream call failed.
+ * A batch rejected with 400 Bad Request is retried city by city so that one unknown
+ * location only fails its own callers, and a city missing from a successful response fails
+ * with 404 Not Found. Lookups still waiting when the batcher shuts down fail with
+ * {@link UpstreamUnavailableException}, so no caller waits forever.
+ */
+class CityBatcher {
+
+  private final Function<List<String>, Map<String, CityInfo>> fetcher;
+  private final int maxBatchSize;
+  private final long maxWaitNanos;
+  private final ScheduledExecutorService scheduler;
+
+  /** Lookups not yet completed, whether pending, queued or being fetched */
+  private final Set<CompletableFuture<CityInfo>> outstanding = ConcurrentHashMap.newKeySet();
+
+  private Map<String, CompletableFuture<CityInfo>> pending = new LinkedHashMap<>();
+  private ScheduledFuture<?> scheduledFlush;
+  private boolean shutdown;
+
+  /**
+   * @param fetcher Fetches a batch of cities and returns the forecasts it found, keyed by requested city
+   * @param maxBatchSize Maximum number of distinct cities sent in one upstream call
+   * @param maxWait Longest time the first city of a batch waits for others to join
+   * @param concurrentBatches Number of batches that may be in flight at once
+   */
+  CityBatcher(Function<List<String>, Map<String, CityInfo>> fetcher, int maxBatchSize,
+              Duration maxWait, int concurrentBatches) {
+    this.fetcher = fetcher;
+    this.maxBatchSize = maxBatchSize;
+    this.maxWaitNanos = maxWait.toNanos();
+    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(concurrentBatches, runnable -> {
+      Thread thread = new Thread(runnable, "visualcrossing-batcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.setRemoveOnCancelPolicy(true);
+    this.scheduler = executor;
+  }
+
+  /**
+   * Adds a city to the current batch. Callers asking for a city already in the batch share its future.
+   *
+   * @param city The city to look up
+   * @return Future completed when the batch containing the city has been fetched
+   */
+  synchronized CompletableFuture<CityInfo> submit(String city) {
+    CompletableFuture<CityInfo> lookup = pending.get(city);
+    if (lookup != null) {
+      return lookup;
+    }
+
+    lookup = new CompletableFuture<>();
+    if (shutdown) {
+      lookup.completeExceptionally(shutDown());
+      return lookup;
+    }
+    CompletableFuture<CityInfo> added = lookup;
+    outstanding.add(added);
+    added.whenComplete((forecast, error) -> outstanding.remove(added));
+    pending.put(city, lookup);
+    if (pending.size() >= maxBatchSize) {
+      Map<String, CompletableFuture<CityInfo>> batch = takePending();
+      scheduler.execute(() -> fetch(batch));
+    } else if (pending.size() == 1) {
+      scheduledFlush = scheduler.schedule(this::flush, maxWaitNanos, TimeUnit.NANOSECONDS);
+    }
+    return lookup;
+  }
+
+  /**
+   * Stops the batcher. Batches not yet sent are dropped and their callers, like those of batches
+   * interrupted in flight, are completed with {@link UpstreamUnavailableException}.
+   */
+  void shutdown() {
+    synchronized (this) {
+      shutdown = true;
+      takePending();
+    }
+    scheduler.shutdownNow();
+    UpstreamUnavailableException error = shutDown();
+    outstanding.forEach(lookup -> lookup.completeExceptionally(error));
+  }
+
+  private static UpstreamUnavailableException shutDown() {
+    return new UpstreamUnavailableException("Visual Crossing batcher is shut down");
+  }
+
+  private void flush() {
+    Map<String, CompletableFuture<CityInfo>> batch;
+    synchronized (this) {
+      if (pending.isEmpty()) {
+        return;
+      }
+      batch = takePending();
+    }
+    fetch(batch);
+  }
+
+  private Map<String, CompletableFuture<CityInfo>> takePending() {
+    Map<String, CompletableFuture<CityInfo>> batch = pending;
+    pending = new LinkedHashMap<>();
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    return batch;
+  }
+
+  private void fetch(Map<String, CompletableFuture<CityInfo>> batch) {
+    try {
+      Map<String, CityInfo> forecasts = fetcher.apply(new ArrayList<>(batch.keySet()));
+      batch.forEach((city, lookup) -> {
+        CityInfo forecast = forecasts.get(city);
+        if (forecast != null) {
+          lookup.complete(forecast);
+        } else {
+          lookup.completeExceptionally(new HttpClientErrorException(HttpStatus.NOT_FOUND,
+                  "No forecast returned for " + city));
+        }
+      });
+    } catch (HttpClientErrorException e) {
+      if (batch.size() > 1 && e.getStatusCode() == HttpStatus.BAD_REQUEST) {
+        // A single unresolvable location rejects the whole request, so retry each city on its own
+        batch.forEach((city, lookup) -> fetch(Map.of(city, lookup)));
+      } else {
+        batch.values().forEach(lookup -> lookup.completeExceptionally(e));
+      }
+    } catch (RuntimeException | Error e) {
+      batch.values().forEach(lookup -> lookup.completeExceptionally(e));
+    }
+  }
+}
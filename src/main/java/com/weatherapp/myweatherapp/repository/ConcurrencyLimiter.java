@@ -0,0 +1,204 @@
+package com.weatherapp.myweatherapp.repository;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limit on concurrent upstream calls, adjusted by additive increase and multiplicative
+ * decrease (AIMD) from each call's round-trip time.
+ *
+ * <p>The limiter tracks a no-load RTT: the fastest successful call, re-estimated every
+ * {@value #BASELINE_SAMPLES} successful calls so it can follow a lasting change in upstream speed.
+ * A call that failed, or took more than {@code rttTolerance} times the no-load RTT, is taken as a
+ * sign that Visual Crossing is queueing and the limit is multiplied by {@code backoffRatio}. Calls
+ * already in flight when the limit was cut do not cut it again, so one burst of slow calls costs a
+ * single backoff rather than one per call. Any other call raises the limit by {@code 1 / limit},
+ * about one per limit's worth of calls, provided at least half the limit was in use.
+ *
+ * <p>Callers over the limit wait for a slot up to a deadline and are then refused. Upstream calls
+ * take milliseconds, so the state is simply guarded by a lock.
+ */
+class ConcurrencyLimiter {
+
+  /** Successful calls per re-estimate of the no-load RTT */
+  static final int BASELINE_SAMPLES = 100;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+  private final double rttTolerance;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition slotFreed = lock.newCondition();
+
+  private volatile double limit;
+  private int inFlight;
+  private volatile int queued;
+  private volatile long increases;
+  private volatile long decreases;
+
+  private long lastDecreaseAt;
+  private boolean decreased;
+  private long baselineRtt = Long.MAX_VALUE;
+  private long windowMinRtt = Long.MAX_VALUE;
+  private int windowSamples;
+
+  /**
+   * @param initialLimit Concurrent calls allowed before any RTT has been measured
+   * @param minLimit Lowest the limit can back off to
+   * @param maxLimit Highest the limit can grow to
+   * @param backoffRatio Factor the limit is multiplied by when upstream is congested
+   * @param rttTolerance Multiple of the no-load RTT above which a call counts as congested
+   */
+  ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double rttTolerance) {
+    if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException(
+              "concurrency limits must be positive, with min-limit <= initial-limit <= max-limit");
+    }
+    if (backoffRatio <= 0 || backoffRatio >= 1 || rttTolerance < 1) {
+      throw new IllegalArgumentException("backoff-ratio must be in (0, 1) and rtt-tolerance at least 1");
+    }
+    this.limit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.backoffRatio = backoffRatio;
+    this.rttTolerance = rttTolerance;
+  }
+
+  /**
+   * Takes a slot, waiting up to {@code maxWaitNanos} for one to free up. Every successful acquire
+   * must be followed by {@link #release} or {@link #cancel}.
+   *
+   * @return true if a slot was taken, false if the deadline passed first
+   */
+  boolean acquire(long maxWaitNanos) throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      if (inFlight < (int) limit) {
+        inFlight++;
+        return true;
+      }
+      long remaining = maxWaitNanos;
+      queued++;
+      try {
+        while (inFlight >= (int) limit) {
+          if (remaining <= 0) {
+            return false;
+          }
+          remaining = slotFreed.awaitNanos(remaining);
+        }
+        inFlight++;
+        return true;
+      } finally {
+        queued--;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Takes a slot if one is free, without waiting. For callers that must not block, such as
+   * reactive calls on an event loop. A successful tryAcquire must be followed by {@link #release}
+   * or {@link #cancel}.
+   *
+   * @return true if a slot was taken
+   */
+  boolean tryAcquire() {
+    lock.lock();
+    try {
+      if (inFlight < (int) limit) {
+        inFlight++;
+        return true;
+      }
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Frees a slot and adjusts the limit from the call made with it.
+   *
+   * @param startNanos The System.nanoTime() at which the call started
+   * @param endNanos The System.nanoTime() at which the call finished
+   * @param failed Whether the call failed in a way that reflects on upstream health
+   */
+  void release(long startNanos, long endNanos, boolean failed) {
+    lock.lock();
+    try {
+      int before = (int) limit;
+      long rtt = endNanos - startNanos;
+      if (!failed) {
+        updateBaseline(rtt);
+      }
+      if (failed || rtt > baselineRtt * rttTolerance) {
+        // Calls that started before the last cut were already counted in it
+        if (!decreased || startNanos - lastDecreaseAt >= 0) {
+          limit = Math.max(minLimit, limit * backoffRatio);
+          lastDecreaseAt = endNanos;
+          decreased = true;
+        }
+      } else if (inFlight * 2 >= limit) {
+        limit = Math.min(maxLimit, limit + 1 / limit);
+      }
+      inFlight--;
+
+      int after = (int) limit;
+      if (after > before) {
+        increases++;
+        slotFreed.signalAll();
+      } else {
+        if (after < before) {
+          decreases++;
+        }
+        slotFreed.signal();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Frees a slot whose call was never made, leaving the limit unchanged.
+   */
+  void cancel() {
+    lock.lock();
+    try {
+      inFlight--;
+      slotFreed.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** The current limit, rounded down to the number of calls it allows */
+  int limit() {
+    return (int) limit;
+  }
+
+  /** Callers waiting for a slot */
+  int queued() {
+    return queued;
+  }
+
+  /** Times the limit went up by a whole call */
+  long increases() {
+    return increases;
+  }
+
+  /** Times the limit went down by at least a whole call */
+  long decreases() {
+    return decreases;
+  }
+
+  private void updateBaseline(long rtt) {
+    baselineRtt = Math.min(baselineRtt, rtt);
+    windowMinRtt = Math.min(windowMinRtt, rtt);
+    if (++windowSamples == BASELINE_SAMPLES) {
+      baselineRtt = windowMinRtt;
+      windowMinRtt = Long.MAX_VALUE;
+      windowSamples = 0;
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.weatherapp.myweatherapp.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.model.WeatherValueJson;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a Visual Crossing timeline response into CityInfo straight from the token stream.
+ * Binding is left to {@link WeatherValueJson.CityInfoDeserializer}, so a response binds the same
+ * way whichever converter reads it; only the fields CityInfo keeps are read and everything else is
+ * skipped without being materialized.
+ */
+class TimelineJsonReader {
+
+  private final ObjectReader cityInfoReader;
+
+  TimelineJsonReader(ObjectMapper objectMapper) {
+    this.cityInfoReader = objectMapper.readerFor(CityInfo.class);
+  }
+
+  /**
+   * Reads a timeline response body.
+   *
+   * @param body The response body, read incrementally
+   * @return The CityInfo, or null if the body is the JSON literal null
+   * @throws IOException if the body cannot be read or is not a timeline object
+   */
+  CityInfo read(InputStream body) throws IOException {
+    return cityInfoReader.readValue(body);
+  }
+}
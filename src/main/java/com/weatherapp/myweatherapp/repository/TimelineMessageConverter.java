@@ -0,0 +1,52 @@
+package com.weatherapp.myweatherapp.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapp.myweatherapp.model.CityInfo;
+import java.io.IOException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * Read-only message converter that binds Visual Crossing timeline responses into CityInfo with
+ * TimelineJsonReader, parsing the body as it streams in. It binds exactly as Jackson databind
+ * does, through the same CityInfo deserializer, but only ever handles CityInfo. It must be
+ * registered ahead of the general Jackson converter to take effect.
+ */
+public class TimelineMessageConverter extends AbstractHttpMessageConverter<CityInfo> {
+
+  private final TimelineJsonReader reader;
+
+  public TimelineMessageConverter(ObjectMapper objectMapper) {
+    super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    this.reader = new TimelineJsonReader(objectMapper);
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return CityInfo.class == clazz;
+  }
+
+  @Override
+  protected boolean canWrite(MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected CityInfo readInternal(Class<? extends CityInfo> clazz, HttpInputMessage inputMessage) throws IOException {
+    try {
+      return reader.read(inputMessage.getBody());
+    } catch (JsonProcessingException e) {
+      throw new HttpMessageNotReadableException("Could not read timeline response: " + e.getOriginalMessage(),
+              e, inputMessage);
+    }
+  }
+
+  @Override
+  protected void writeInternal(CityInfo cityInfo, HttpOutputMessage outputMessage) {
+    throw new UnsupportedOperationException("TimelineMessageConverter is read-only");
+  }
+}
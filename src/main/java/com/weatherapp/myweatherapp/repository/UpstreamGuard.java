@@ -0,0 +1,327 @@
+package com.weatherapp.myweatherapp.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Protects request threads from a slow or failing Visual Crossing.
+ *
+ * <p>An {@link UpstreamRateLimiter} meters calls against the Visual Crossing record quota, giving
+ * user calls priority over background ones, and holds calls back for the Retry-After delay of a
+ * 429. A {@link ConcurrencyLimiter} caps the calls in progress at a limit it adapts to upstream
+ * round-trip times; a user call that cannot get a slot within {@code max-wait} is refused.
+ * Background calls never wait for quota or a slot, so they cannot hold up user calls. A
+ * {@link CircuitBreaker} tracks failures and slow calls and, once open, refuses calls without
+ * contacting Visual Crossing. Refused calls throw {@link UpstreamUnavailableException}, which
+ * WeatherService answers with a stale forecast when it has one.
+ *
+ * <p>Reactive calls go through the same limiter, limit and breaker without blocking: a wait for
+ * quota becomes a delay on the reactor timer, and a reactive call that finds no free slot is
+ * refused at once instead of queueing on the event loop.
+ */
+@Component
+public class UpstreamGuard {
+
+  private final CircuitBreaker circuitBreaker;
+  private final ConcurrencyLimiter limiter;
+  private final long maxWaitNanos;
+  private final UpstreamRateLimiter rateLimiter;
+  private final long quotaMaxWaitNanos;
+  private final long defaultRetryAfterNanos;
+  private final Counter circuitOpenRejections;
+  private final Counter limitExceededRejections;
+  private final Counter rateLimitedRejections;
+  private final Counter backgroundRateLimitedRejections;
+
+  @Autowired
+  public UpstreamGuard(
+          @Value("${weather.visualcrossing.circuit-breaker.window-size:20}") int windowSize,
+          @Value("${weather.visualcrossing.circuit-breaker.minimum-calls:10}") int minimumCalls,
+          @Value("${weather.visualcrossing.circuit-breaker.failure-rate-threshold:50}") double failureRateThreshold,
+          @Value("${weather.visualcrossing.circuit-breaker.slow-call-rate-threshold:80}") double slowCallRateThreshold,
+          @Value("${weather.visualcrossing.circuit-breaker.slow-call-duration:3s}") Duration slowCallDuration,
+          @Value("${weather.visualcrossing.circuit-breaker.open-duration:30s}") Duration openDuration,
+          @Value("${weather.visualcrossing.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+          @Value("${weather.visualcrossing.concurrency-limit.initial-limit:20}") int initialLimit,
+          @Value("${weather.visualcrossing.concurrency-limit.min-limit:2}") int minLimit,
+          @Value("${weather.visualcrossing.concurrency-limit.max-limit:50}") int maxLimit,
+          @Value("${weather.visualcrossing.concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+          @Value("${weather.visualcrossing.concurrency-limit.rtt-tolerance:2.0}") double rttTolerance,
+          @Value("${weather.visualcrossing.concurrency-limit.max-wait:100ms}") Duration maxWait,
+          @Value("${weather.visualcrossing.rate-limit.records-per-second:0}") int recordsPerSecond,
+          @Value("${weather.visualcrossing.rate-limit.records-per-day:0}") int recordsPerDay,
+          @Value("${weather.visualcrossing.rate-limit.background-reserve:0.2}") double backgroundReserve,
+          @Value("${weather.visualcrossing.rate-limit.max-wait:1s}") Duration quotaMaxWait,
+          @Value("${weather.visualcrossing.rate-limit.default-retry-after:1s}") Duration defaultRetryAfter,
+          MeterRegistry registry) {
+    this(new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+            slowCallDuration, openDuration, halfOpenCalls, System::nanoTime),
+            new ConcurrencyLimiter(initialLimit, minLimit, maxLimit, backoffRatio, rttTolerance), maxWait,
+            new UpstreamRateLimiter(recordsPerSecond, recordsPerDay, backgroundReserve, System::nanoTime),
+            quotaMaxWait, defaultRetryAfter, registry);
+  }
+
+  UpstreamGuard(CircuitBreaker circuitBreaker, ConcurrencyLimiter limiter, Duration maxWait,
+                UpstreamRateLimiter rateLimiter, Duration quotaMaxWait, Duration defaultRetryAfter,
+                MeterRegistry registry) {
+    this.circuitBreaker = circuitBreaker;
+    this.limiter = limiter;
+    this.maxWaitNanos = maxWait.toNanos();
+    this.rateLimiter = rateLimiter;
+    this.quotaMaxWaitNanos = quotaMaxWait.toNanos();
+    this.defaultRetryAfterNanos = defaultRetryAfter.toNanos();
+
+    for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+      Gauge.builder("weather.upstream.circuit.state", circuitBreaker, breaker -> breaker.state() == state ? 1 : 0)
+              .description("1 for the circuit breaker's current state, 0 for the others")
+              .tag("state", state.name().toLowerCase(Locale.ROOT))
+              .register(registry);
+    }
+    Gauge.builder("weather.upstream.concurrency.limit", limiter, ConcurrencyLimiter::limit)
+            .description("Visual Crossing calls allowed in progress at once")
+            .register(registry);
+    Gauge.builder("weather.upstream.concurrency.queued", limiter, ConcurrencyLimiter::queued)
+            .description("Visual Crossing calls waiting for the concurrency limit")
+            .register(registry);
+    FunctionCounter.builder("weather.upstream.concurrency.limit.changes", limiter, ConcurrencyLimiter::increases)
+            .description("Changes of the concurrency limit by at least one call")
+            .tag("direction", "increase")
+            .register(registry);
+    FunctionCounter.builder("weather.upstream.concurrency.limit.changes", limiter, ConcurrencyLimiter::decreases)
+            .description("Changes of the concurrency limit by at least one call")
+            .tag("direction", "decrease")
+            .register(registry);
+    Gauge.builder("weather.upstream.quota.available", rateLimiter, UpstreamRateLimiter::availablePerSecond)
+            .description("Visual Crossing records that can be billed without waiting")
+            .baseUnit("records")
+            .tag("window", "second")
+            .register(registry);
+    Gauge.builder("weather.upstream.quota.available", rateLimiter, UpstreamRateLimiter::availablePerDay)
+            .description("Visual Crossing records that can be billed without waiting")
+            .baseUnit("records")
+            .tag("window", "day")
+            .register(registry);
+    circuitOpenRejections = rejections("circuit_open", registry);
+    limitExceededRejections = rejections("limit_exceeded", registry);
+    rateLimitedRejections = rejections("rate_limited", registry);
+    backgroundRateLimitedRejections = rejections("rate_limited_background", registry);
+  }
+
+  /**
+   * Makes an upstream call if the rate limiter, concurrency limit and circuit breaker allow it.
+   *
+   * @param priority The lane the call is metered in
+   * @param records Records Visual Crossing bills for the call
+   * @param upstreamCall The call to Visual Crossing
+   * @return The call's result
+   * @throws UpstreamUnavailableException if the call was refused
+   */
+  public <T> T call(UpstreamPriority priority, int records, Supplier<T> upstreamCall) {
+    awaitQuota(priority, records);
+    try {
+      acquireSlot(priority);
+    } catch (UpstreamUnavailableException e) {
+      rateLimiter.refund(records);
+      throw e;
+    }
+    CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+    if (permit == null) {
+      limiter.cancel();
+      rateLimiter.refund(records);
+      circuitOpenRejections.increment();
+      throw new UpstreamUnavailableException("Visual Crossing circuit breaker is open");
+    }
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      T result = upstreamCall.get();
+      failed = false;
+      return result;
+    } catch (RuntimeException e) {
+      failed = isUpstreamFailure(e);
+      if (e instanceof HttpStatusCodeException statusCodeException
+              && statusCodeException.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+        rateLimiter.pause(retryAfterNanos(statusCodeException.getResponseHeaders()));
+      }
+      throw e;
+    } finally {
+      long end = System.nanoTime();
+      circuitBreaker.record(permit, end - start, failed);
+      limiter.release(start, end, failed);
+    }
+  }
+
+  /**
+   * Makes a reactive upstream call if the rate limiter, concurrency limit and circuit breaker
+   * allow it, without blocking the subscribing thread.
+   *
+   * @param priority The lane the call is metered in
+   * @param records Records Visual Crossing bills for the call
+   * @param upstreamCall Supplies the call to Visual Crossing, subscribed once it is allowed
+   * @return Mono emitting the call's result, or failing with UpstreamUnavailableException if refused
+   */
+  public <T> Mono<T> callReactive(UpstreamPriority priority, int records, Supplier<Mono<T>> upstreamCall) {
+    return Mono.defer(() -> {
+      long wait = reserveQuota(priority, records);
+      if (wait == 0) {
+        return guardedCall(records, upstreamCall);
+      }
+      return Mono.delay(Duration.ofNanos(wait))
+              .doOnCancel(() -> rateLimiter.refund(records))
+              .then(Mono.defer(() -> guardedCall(records, upstreamCall)));
+    });
+  }
+
+  private <T> Mono<T> guardedCall(int records, Supplier<Mono<T>> upstreamCall) {
+    if (!limiter.tryAcquire()) {
+      rateLimiter.refund(records);
+      limitExceededRejections.increment();
+      return Mono.error(new UpstreamUnavailableException("Too many Visual Crossing calls in progress"));
+    }
+    CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+    if (permit == null) {
+      limiter.cancel();
+      rateLimiter.refund(records);
+      circuitOpenRejections.increment();
+      return Mono.error(new UpstreamUnavailableException("Visual Crossing circuit breaker is open"));
+    }
+    long start = System.nanoTime();
+    AtomicBoolean released = new AtomicBoolean();
+    Runnable succeeded = () -> release(released, permit, start, false);
+    return Mono.defer(upstreamCall)
+            .doOnSuccess(result -> succeeded.run())
+            .doOnCancel(succeeded)
+            .doOnError(e -> {
+              if (e instanceof WebClientResponseException responseException
+                      && responseException.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                rateLimiter.pause(retryAfterNanos(responseException.getHeaders()));
+              }
+              release(released, permit, start, e instanceof RuntimeException runtimeException && isUpstreamFailure(runtimeException));
+            });
+  }
+
+  /**
+   * Records a reactive call's outcome once, whichever of success, error or cancellation comes first.
+   */
+  private void release(AtomicBoolean released, CircuitBreaker.Permit permit, long start, boolean failed) {
+    if (released.compareAndSet(false, true)) {
+      long end = System.nanoTime();
+      circuitBreaker.record(permit, end - start, failed);
+      limiter.release(start, end, failed);
+    }
+  }
+
+  /**
+   * Whether an exception means Visual Crossing could not answer, rather than that it rejected the
+   * request. Only these failures count against the circuit breaker. Both RestTemplate and
+   * WebClient exceptions are recognized.
+   */
+  public static boolean isUpstreamFailure(RuntimeException e) {
+    if (e instanceof ResourceAccessException || e instanceof WebClientRequestException) {
+      return true;
+    }
+    HttpStatusCode status = null;
+    if (e instanceof HttpStatusCodeException statusCodeException) {
+      status = statusCodeException.getStatusCode();
+    } else if (e instanceof WebClientResponseException responseException) {
+      status = responseException.getStatusCode();
+    }
+    return status != null && (status.is5xxServerError() || status.value() == HttpStatus.TOO_MANY_REQUESTS.value());
+  }
+
+  /**
+   * Reads the delay a 429 response asks for, given either in seconds or as an HTTP date.
+   */
+  long retryAfterNanos(HttpHeaders headers) {
+    String retryAfter = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+    if (retryAfter == null || retryAfter.isBlank()) {
+      return defaultRetryAfterNanos;
+    }
+    retryAfter = retryAfter.trim();
+    try {
+      return TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(retryAfter)));
+    } catch (NumberFormatException e) {
+      // Not delta-seconds; try an HTTP date
+    }
+    try {
+      ZonedDateTime until = ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME);
+      return Math.max(0, Duration.between(ZonedDateTime.now(until.getZone()), until).toNanos());
+    } catch (DateTimeParseException e) {
+      return defaultRetryAfterNanos;
+    }
+  }
+
+  private void awaitQuota(UpstreamPriority priority, int records) {
+    long wait = reserveQuota(priority, records);
+    if (wait > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        rateLimiter.refund(records);
+        throw new UpstreamUnavailableException("Interrupted waiting for Visual Crossing request quota");
+      }
+    }
+  }
+
+  /**
+   * Takes the quota for a call.
+   *
+   * @return Nanoseconds to wait before calling
+   * @throws UpstreamUnavailableException if the quota cannot be had within the allowed wait
+   */
+  private long reserveQuota(UpstreamPriority priority, int records) {
+    long wait = rateLimiter.reserve(records, priority, quotaMaxWaitNanos);
+    if (wait < 0) {
+      if (priority == UpstreamPriority.BACKGROUND) {
+        backgroundRateLimitedRejections.increment();
+      } else {
+        rateLimitedRejections.increment();
+      }
+      throw new UpstreamUnavailableException("Visual Crossing request quota exhausted");
+    }
+    return wait;
+  }
+
+  private void acquireSlot(UpstreamPriority priority) {
+    boolean acquired;
+    try {
+      acquired = limiter.acquire(priority == UpstreamPriority.BACKGROUND ? 0 : maxWaitNanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new UpstreamUnavailableException("Interrupted waiting for a Visual Crossing call slot");
+    }
+    if (!acquired) {
+      limitExceededRejections.increment();
+      throw new UpstreamUnavailableException("Too many Visual Crossing calls in progress");
+    }
+  }
+
+  private static Counter rejections(String reason, MeterRegistry registry) {
+    return Counter.builder("weather.upstream.rejected")
+            .description("Visual Crossing calls refused without being made")
+            .tag("reason", reason)
+            .register(registry);
+  }
+}
@@ -0,0 +1,171 @@
+package com.weatherapp.myweatherapp.repository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Measures Visual Crossing calls made through the RestTemplate: how many are in progress and how
+ * many bytes each response body carried. Bytes are counted as the message converter reads them,
+ * so the body is never buffered. Call latency and status are recorded by Spring Boot as
+ * {@code http.client.requests}.
+ */
+public class UpstreamMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final DistributionSummary timelineSize;
+  private final DistributionSummary timelineMultiSize;
+
+  public UpstreamMetricsInterceptor(MeterRegistry registry) {
+    Gauge.builder("weather.upstream.requests.active", inFlight, AtomicInteger::get)
+            .description("Visual Crossing calls whose response has not been fully read")
+            .register(registry);
+    timelineSize = responseSize("timeline", registry);
+    timelineMultiSize = responseSize("timelinemulti", registry);
+  }
+
+  @Override
+  public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+          throws IOException {
+    inFlight.incrementAndGet();
+    ClientHttpResponse response;
+    try {
+      response = execution.execute(request, body);
+    } catch (IOException | RuntimeException e) {
+      inFlight.decrementAndGet();
+      throw e;
+    }
+    String path = request.getURI().getRawPath();
+    return new MeasuredResponse(response,
+            path != null && path.endsWith("/timelinemulti") ? timelineMultiSize : timelineSize);
+  }
+
+  private static DistributionSummary responseSize(String endpoint, MeterRegistry registry) {
+    return DistributionSummary.builder("weather.upstream.response.size")
+            .description("Size of Visual Crossing response bodies")
+            .baseUnit("bytes")
+            .tag("endpoint", endpoint)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(256.0)
+            .maximumExpectedValue(16.0 * 1024 * 1024)
+            .register(registry);
+  }
+
+  /**
+   * Counts the bytes read from a response body and records them when the response is closed.
+   */
+  private final class MeasuredResponse implements ClientHttpResponse {
+
+    private final ClientHttpResponse delegate;
+    private final DistributionSummary size;
+    private CountingInputStream body;
+    private boolean closed;
+
+    MeasuredResponse(ClientHttpResponse delegate, DistributionSummary size) {
+      this.delegate = delegate;
+      this.size = size;
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+      if (body == null) {
+        body = new CountingInputStream(delegate.getBody());
+      }
+      return body;
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() throws IOException {
+      return delegate.getStatusCode();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public int getRawStatusCode() throws IOException {
+      return delegate.getRawStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+      return delegate.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return delegate.getHeaders();
+    }
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        inFlight.decrementAndGet();
+        if (body != null) {
+          size.record(body.count);
+        }
+      }
+      delegate.close();
+    }
+  }
+
+  /**
+   * Counts bytes read, rewinding the count on reset since RestTemplate peeks at the first byte
+   * with mark and reset to detect an empty body.
+   */
+  private static final class CountingInputStream extends FilterInputStream {
+
+    private long count;
+    private long markedCount;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = super.read(b, off, len);
+      if (read > 0) {
+        count += read;
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+      super.mark(readlimit);
+      markedCount = count;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+      super.reset();
+      count = markedCount;
+    }
+  }
+}
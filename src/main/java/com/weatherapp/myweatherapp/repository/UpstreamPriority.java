@@ -0,0 +1,11 @@
+package com.weatherapp.myweatherapp.repository;
+
+/**
+ * The lane a Visual Crossing call is metered in by the upstream rate limiter.
+ */
+public enum UpstreamPriority {
+  /** A call a user request is waiting for */
+  USER,
+  /** A refresh, refresh-ahead or warm-up call no request is waiting for */
+  BACKGROUND
+}
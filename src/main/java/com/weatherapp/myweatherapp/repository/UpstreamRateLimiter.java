@@ -0,0 +1,165 @@
+package com.weatherapp.myweatherapp.repository;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Meters Visual Crossing calls against the plan's record quota with two token buckets, one
+ * refilled per second and one per day. A call takes one token per record it is billed for.
+ *
+ * <p>User calls may take the last tokens and, when a bucket is short, reserve tokens ahead and
+ * wait for them up to a deadline. Background calls never wait: they only go ahead when both
+ * buckets hold their records plus a reserve kept for user calls, and nobody has reserved ahead,
+ * so a refresh or warm-up never delays a request. A call larger than a bucket's capacity is let
+ * through once the bucket is full and leaves it in debt.
+ *
+ * <p>After a 429 every call is held back until the Retry-After delay has passed. Calls are
+ * milliseconds apart at most, so the state is simply guarded by the instance lock.
+ */
+class UpstreamRateLimiter {
+
+  private static final long NANOS_PER_DAY = TimeUnit.DAYS.toNanos(1);
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final Bucket perSecond;
+  private final Bucket perDay;
+  private final double backgroundReserve;
+  private final LongSupplier ticker;
+
+  private boolean paused;
+  private long pausedUntil;
+
+  /**
+   * @param recordsPerSecond Records billed per second at most, or 0 for no per-second limit
+   * @param recordsPerDay Records billed per day at most, or 0 for no daily limit
+   * @param backgroundReserve Share of each bucket that background calls leave for user calls
+   * @param ticker Source of System.nanoTime()-style timestamps
+   */
+  UpstreamRateLimiter(int recordsPerSecond, int recordsPerDay, double backgroundReserve, LongSupplier ticker) {
+    if (recordsPerSecond < 0 || recordsPerDay < 0 || backgroundReserve < 0 || backgroundReserve >= 1) {
+      throw new IllegalArgumentException(
+              "records-per-second and records-per-day must not be negative, and background-reserve must be in [0, 1)");
+    }
+    long now = ticker.getAsLong();
+    this.perSecond = recordsPerSecond == 0 ? null : new Bucket(recordsPerSecond, NANOS_PER_SECOND, now);
+    this.perDay = recordsPerDay == 0 ? null : new Bucket(recordsPerDay, NANOS_PER_DAY, now);
+    this.backgroundReserve = backgroundReserve;
+    this.ticker = ticker;
+  }
+
+  /**
+   * Takes the tokens for a call. User calls may be granted tokens that are yet to be refilled and
+   * must wait the returned time before calling. A granted call that is not made should be
+   * {@link #refund refunded}.
+   *
+   * @param records Records the call is billed for
+   * @param priority The lane of the call
+   * @param maxWaitNanos How long a user call may wait for its tokens
+   * @return Nanoseconds to wait before calling, or -1 if the call is refused
+   */
+  synchronized long reserve(int records, UpstreamPriority priority, long maxWaitNanos) {
+    long now = ticker.getAsLong();
+    long wait = paused ? Math.max(0, pausedUntil - now) : 0;
+    if (priority == UpstreamPriority.BACKGROUND) {
+      if (wait > 0 || !hasSpare(perSecond, records, now) || !hasSpare(perDay, records, now)) {
+        return -1;
+      }
+    } else {
+      wait = Math.max(wait, Math.max(waitFor(perSecond, records, now), waitFor(perDay, records, now)));
+      if (wait > maxWaitNanos) {
+        return -1;
+      }
+    }
+    if (perSecond != null) {
+      perSecond.tokens -= records;
+    }
+    if (perDay != null) {
+      perDay.tokens -= records;
+    }
+    return wait;
+  }
+
+  /**
+   * Returns the tokens of a call granted by {@link #reserve} that was not made.
+   */
+  synchronized void refund(int records) {
+    long now = ticker.getAsLong();
+    if (perSecond != null) {
+      perSecond.refill(now);
+      perSecond.tokens = Math.min(perSecond.capacity, perSecond.tokens + records);
+    }
+    if (perDay != null) {
+      perDay.refill(now);
+      perDay.tokens = Math.min(perDay.capacity, perDay.tokens + records);
+    }
+  }
+
+  /**
+   * Holds back every call for the given time, as asked by a Retry-After header.
+   */
+  synchronized void pause(long durationNanos) {
+    long until = ticker.getAsLong() + durationNanos;
+    if (!paused || until - pausedUntil > 0) {
+      pausedUntil = until;
+      paused = true;
+    }
+  }
+
+  /** Records that can be billed now without waiting, per second */
+  synchronized double availablePerSecond() {
+    return available(perSecond);
+  }
+
+  /** Records that can be billed now without waiting, for the rest of the day's allowance */
+  synchronized double availablePerDay() {
+    return available(perDay);
+  }
+
+  private double available(Bucket bucket) {
+    if (bucket == null) {
+      return Double.POSITIVE_INFINITY;
+    }
+    bucket.refill(ticker.getAsLong());
+    return Math.max(0, bucket.tokens);
+  }
+
+  private boolean hasSpare(Bucket bucket, int records, long now) {
+    if (bucket == null) {
+      return true;
+    }
+    bucket.refill(now);
+    return bucket.tokens - Math.min(records, bucket.capacity) >= bucket.capacity * backgroundReserve;
+  }
+
+  private static long waitFor(Bucket bucket, int records, long now) {
+    if (bucket == null) {
+      return 0;
+    }
+    bucket.refill(now);
+    double missing = Math.min(records, bucket.capacity) - bucket.tokens;
+    return missing <= 0 ? 0 : (long) Math.ceil(missing / bucket.tokensPerNano);
+  }
+
+  /**
+   * Tokens refilled continuously up to a capacity. Reservations ahead of time leave it negative.
+   */
+  private static final class Bucket {
+
+    final double capacity;
+    final double tokensPerNano;
+    double tokens;
+    long refilledAt;
+
+    Bucket(int capacity, long periodNanos, long now) {
+      this.capacity = capacity;
+      this.tokensPerNano = (double) capacity / periodNanos;
+      this.tokens = capacity;
+      this.refilledAt = now;
+    }
+
+    void refill(long now) {
+      tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+      refilledAt = now;
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.weatherapp.myweatherapp.repository;
+
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Thrown instead of calling Visual Crossing when the call is refused locally, because the circuit
+ * breaker is open or the concurrency limit is reached. It extends ResourceAccessException so callers treat it
+ * like an unreachable upstream, for example by serving a stale forecast.
+ */
+public class UpstreamUnavailableException extends ResourceAccessException {
+
+  public UpstreamUnavailableException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,53 @@
+package com.weatherapp.myweatherapp.repository;
+
+import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of VisualcrossingRepository. Requests are issued on the WebClient
+ * event loop, so no thread is held while waiting for Visual Crossing to respond. Like the blocking
+ * repository, every call is metered against the record quota and passes the concurrency limit
+ * and circuit breaker of the shared UpstreamGuard.
+ */
+@Repository
+public class VisualcrossingReactiveRepository {
+
+  @Value("${weather.visualcrossing.key}")
+  String key;
+
+  @Autowired
+  WebClient visualcrossingWebClient;
+
+  @Autowired
+  UpstreamGuard upstreamGuard;
+
+  /**
+   * Fetches the timeline for a city.
+   *
+   * @param city The city to look up
+   * @return Mono emitting the CityInfo, or failing with a WebClientResponseException on an error status
+   */
+  public Mono<CityInfo> getByCity(String city) {
+    return getByCity(city, FetchProfile.FULL);
+  }
+
+  /**
+   * Fetches the parts of a city's timeline described by a fetch profile.
+   *
+   * @param city The city to look up
+   * @param profile The sections and elements to request
+   * @return Mono emitting the CityInfo, holding only the requested sections, or failing with
+   *     UpstreamUnavailableException if the call was refused
+   */
+  public Mono<CityInfo> getByCity(String city, FetchProfile profile) {
+    return upstreamGuard.callReactive(UpstreamPriority.USER, profile.records(), () -> visualcrossingWebClient.get()
+            .uri("timeline/{city}?key={key}" + profile.queryParameters(), city, key)
+            .retrieve()
+            .bodyToMono(CityInfo.class));
+  }
+}
@@ -1,6 +1,18 @@
 package com.weatherapp.myweatherapp.repository;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.client.RestTemplate;
@@ -13,11 +25,138 @@ public class VisualcrossingRepository {
   @Value("${weather.visualcrossing.key}")
   String key;
 
+  @Autowired
+  RestTemplate visualcrossingRestTemplate;
+
+  /** Rate limiter, concurrency limit and circuit breaker every Visual Crossing call goes through */
+  @Autowired
+  UpstreamGuard upstreamGuard;
+
+  /** When enabled, concurrent lookups are grouped into multi-location requests */
+  @Value("${weather.visualcrossing.batching.enabled:false}")
+  boolean batchingEnabled;
+  @Value("${weather.visualcrossing.batching.max-batch-size:20}")
+  int maxBatchSize;
+  @Value("${weather.visualcrossing.batching.max-wait:20ms}")
+  Duration maxBatchWait;
+  @Value("${weather.visualcrossing.batching.concurrent-batches:4}")
+  int concurrentBatches;
+
+  private CityBatcher batcher;
+
+  @PostConstruct
+  void startBatching() {
+    if (batchingEnabled) {
+      batcher = new CityBatcher(this::getByCities, maxBatchSize, maxBatchWait, concurrentBatches);
+    }
+  }
+
+  @PreDestroy
+  void stopBatching() {
+    if (batcher != null) {
+      batcher.shutdown();
+    }
+  }
+
 
   public CityInfo getByCity(String city) {
-    String uri = url + "timeline/" +city + "?key=" + key;
-    RestTemplate restTemplate = new RestTemplate();
-    return restTemplate.getForObject(uri, CityInfo.class);
+    if (batcher != null) {
+      return await(batcher.submit(city));
+    }
+    return fetchTimeline(city, FetchProfile.FULL, UpstreamPriority.USER);
+  }
+
+  /**
+   * Fetches the parts of a city's timeline described by a fetch profile.
+   * Narrow profiles are sent as individual requests and bypass batching.
+   *
+   * @param city The city to look up
+   * @param profile The sections and elements to request
+   * @return The CityInfo, holding only the requested sections
+   */
+  public CityInfo getByCity(String city, FetchProfile profile) {
+    if (profile == FetchProfile.FULL) {
+      return getByCity(city);
+    }
+    return fetchTimeline(city, profile, UpstreamPriority.USER);
+  }
+
+  /**
+   * Fetches a city's timeline in the given rate-limiting lane. Background fetches bypass batching
+   * so that a batch never mixes lanes.
+   *
+   * @param city The city to look up
+   * @param profile The sections and elements to request
+   * @param priority The lane the call is metered in
+   * @return The CityInfo, holding only the requested sections
+   */
+  public CityInfo getByCity(String city, FetchProfile profile, UpstreamPriority priority) {
+    if (priority == UpstreamPriority.USER) {
+      return getByCity(city, profile);
+    }
+    return fetchTimeline(city, profile, priority);
+  }
+
+  /**
+   * Fetches several cities with a single multi-location timeline request.
+   *
+   * @param cities The cities to look up
+   * @return The forecasts keyed by requested city; cities missing from the response are absent
+   */
+  public Map<String, CityInfo> getByCities(List<String> cities) {
+    Map<String, CityInfo> forecasts = new HashMap<>();
+    if (cities.size() == 1) {
+      forecasts.put(cities.get(0), fetchTimeline(cities.get(0), FetchProfile.FULL, UpstreamPriority.USER));
+      return forecasts;
+    }
+
+    int records = cities.size() * FetchProfile.FULL.records();
+    TimelineMultiResponse response = upstreamGuard.call(UpstreamPriority.USER, records,
+            () -> visualcrossingRestTemplate.getForObject(
+                    url + "timelinemulti?locations={locations}&key={key}", TimelineMultiResponse.class,
+                    String.join("|", cities), key));
+    if (response == null || response.locations() == null) {
+      return forecasts;
+    }
+
+    // Locations normally echo the requested address; fall back to response order otherwise
+    List<CityInfo> locations = response.locations();
+    for (int i = 0; i < locations.size(); i++) {
+      CityInfo location = locations.get(i);
+      if (location == null) {
+        continue;
+      }
+      String requested = location.getAddress() != null && cities.contains(location.getAddress())
+              ? location.getAddress()
+              : i < cities.size() ? cities.get(i) : null;
+      if (requested != null) {
+        forecasts.putIfAbsent(requested, location);
+      }
+    }
+    return forecasts;
+  }
+
+  private CityInfo fetchTimeline(String city, FetchProfile profile, UpstreamPriority priority) {
+    // Expand the city and key as variables so request metrics are tagged with the template, not the city
+    return upstreamGuard.call(priority, profile.records(), () -> visualcrossingRestTemplate.getForObject(
+            url + "timeline/{city}?key={key}" + profile.queryParameters(), CityInfo.class, city, key));
+  }
+
+  private static CityInfo await(CompletableFuture<CityInfo> lookup) {
+    try {
+      return lookup.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw e;
+    }
+  }
 
+  /**
+   * Body of a multi-location timeline response: one timeline per requested location.
+   */
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  record TimelineMultiResponse(@JsonProperty("locations") List<CityInfo> locations) {
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,180 @@
+package com.weatherapp.myweatherapp.service;
+
+import com.weatherapp.myweatherapp.repository.UpstreamPriority;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Preloads forecasts at startup so the first requests after a deploy are served from the cache.
+ *
+ * <p>The cities come from {@code weather.warmup.cities} followed by the hottest cities saved in
+ * the traffic snapshot at {@code weather.warmup.snapshot-path} by the previous run. Cities that
+ * already have a fresh forecast, for example one reloaded from the on-disk store, are skipped.
+ * At most {@code concurrency} cities are fetched at once, and warm-up gives up after {@code timeout}.
+ *
+ * <p>Spring Boot only reports the application as ready to accept traffic once every
+ * ApplicationRunner has returned, so the readiness probe stays down until warm-up finishes.
+ */
+@Component
+public class CacheWarmer implements ApplicationRunner {
+
+  @Autowired
+  WeatherService weatherService;
+
+  @Autowired
+  ForecastCache forecastCache;
+
+  @Autowired
+  CityPopularity cityPopularity;
+
+  @Autowired
+  CityCanonicalizer cityCanonicalizer;
+
+  @Value("${weather.warmup.cities:}")
+  List<String> cities;
+
+  /** File holding the previous run's hottest cities, one per line; blank disables snapshots */
+  @Value("${weather.warmup.snapshot-path:}")
+  String snapshotPath;
+
+  @Value("${weather.warmup.snapshot-size:50}")
+  int snapshotSize;
+
+  @Value("${weather.warmup.concurrency:4}")
+  int concurrency;
+
+  @Value("${weather.warmup.timeout:60s}")
+  Duration timeout;
+
+  @Override
+  public void run(ApplicationArguments args) throws InterruptedException {
+    warmUp();
+  }
+
+  /**
+   * Fetches every warm-up city that is not already cached and waits for the fetches to finish.
+   *
+   * @return The number of cities fetched successfully
+   * @throws InterruptedException if startup is interrupted while waiting
+   */
+  int warmUp() throws InterruptedException {
+    List<Callable<Boolean>> fetches = new ArrayList<>();
+    for (Map.Entry<String, String> city : warmUpCities().entrySet()) {
+      Duration left = forecastCache.timeToExpiry(city.getKey());
+      if (left == null || left.isNegative() || left.isZero()) {
+        fetches.add(() -> fetch(city.getValue()));
+      }
+    }
+    if (fetches.isEmpty()) {
+      return 0;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, fetches.size()), runnable -> {
+      Thread thread = new Thread(runnable, "weather-warmup");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      int warmed = 0;
+      for (Future<Boolean> fetch : executor.invokeAll(fetches, timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        if (!fetch.isCancelled() && Boolean.TRUE.equals(fetch.get())) {
+          warmed++;
+        }
+      }
+      return warmed;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Warm-up fetch failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Saves the hottest cities so the next run can warm them up.
+   */
+  @PreDestroy
+  void saveSnapshot() {
+    if (snapshotPath == null || snapshotPath.isBlank()) {
+      return;
+    }
+    // A city ranked under several profiles is listed once
+    List<String> hottest = cityPopularity.hottest(1).stream()
+            .map(CityPopularity.HotCity::city)
+            .distinct()
+            .limit(snapshotSize)
+            .toList();
+    try {
+      Path snapshot = Path.of(snapshotPath);
+      Path parent = snapshot.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Path written = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+      Files.write(written, hottest, StandardCharsets.UTF_8);
+      Files.move(written, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // Keep the previous snapshot; the next run warms up from it instead
+    }
+  }
+
+  /**
+   * Collects the configured cities followed by the snapshot cities, keyed by the canonical cache
+   * key the forecast is stored under, so a city listed in both or under two known spellings is
+   * fetched once and one reloaded from the store is recognized as fresh.
+   */
+  private Map<String, String> warmUpCities() {
+    Map<String, String> warmUp = new LinkedHashMap<>();
+    List<String> candidates = new ArrayList<>(cities == null ? List.of() : cities);
+    candidates.addAll(readSnapshot());
+    for (String city : candidates) {
+      String key = WeatherService.cacheKey(city);
+      if (key != null) {
+        String canonical = cityCanonicalizer.resolve(key);
+        warmUp.putIfAbsent(canonical != null ? canonical : key, city.trim());
+      }
+    }
+    return warmUp;
+  }
+
+  private List<String> readSnapshot() {
+    if (snapshotPath == null || snapshotPath.isBlank()) {
+      return List.of();
+    }
+    try {
+      return Files.readAllLines(Path.of(snapshotPath), StandardCharsets.UTF_8).stream()
+              .limit(snapshotSize)
+              .toList();
+    } catch (IOException e) {
+      return List.of();
+    }
+  }
+
+  private boolean fetch(String city) {
+    try {
+      return weatherService.refreshForecast(city, UpstreamPriority.BACKGROUND) != null;
+    } catch (RuntimeException e) {
+      // A city that cannot be fetched now is fetched on its first request instead
+      return false;
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package com.weatherapp.myweatherapp.service;
+
+import com.weatherapp.myweatherapp.model.CityInfo;
+import jakarta.annotation.PostConstruct;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps the many spellings of a city onto one cache key.
+ *
+ * <p>{@link #normalize} handles spellings that differ only in form: Unicode compatibility
+ * characters, case, and whitespace, including spaces around commas. The alias index handles
+ * spellings that differ in content, such as "London" and "London,UK". It learns from the
+ * location Visual Crossing resolved each lookup to, so once two spellings have been fetched
+ * they share a single cache entry.
+ *
+ * <p>Forecasts are stored under their canonical id, so when a ForecastStore is configured the
+ * index is rebuilt at startup from the stored forecasts, each of which records the spelling it was
+ * requested with. A restarted instance then finds "London" in the store without refetching it.
+ */
+@Component
+public class CityCanonicalizer {
+
+  /**
+   * Normalized spelling to canonical location id. Canonical ids map to themselves so every alias
+   * of a location shares one String instance.
+   */
+  private final ConcurrentMap<String, String> aliases = new ConcurrentHashMap<>();
+
+  @Value("${weather.cache.max-aliases:10000}")
+  int maxAliases;
+
+  @Autowired(required = false)
+  ForecastStore store;
+
+  /**
+   * Relearns the alias of every stored forecast from the address it was requested with.
+   */
+  @PostConstruct
+  void rebuildFromStore() {
+    if (store == null) {
+      return;
+    }
+    store.forEach((key, stored) -> {
+      String requested = normalize(stored.forecast().getAddress());
+      if (requested != null) {
+        learn(requested, stored.forecast());
+      }
+    });
+  }
+
+  /**
+   * Normalizes a city name: applies Unicode NFKC normalization, trims it, collapses runs of
+   * whitespace into one space, removes whitespace around commas and lower-cases it.
+   *
+   * @param city The city name as supplied by the caller
+   * @return The normalized name, or null if the name is null or blank
+   */
+  public static String normalize(String city) {
+    if (city == null) {
+      return null;
+    }
+    String text = Normalizer.normalize(city, Normalizer.Form.NFKC);
+    StringBuilder normalized = new StringBuilder(text.length());
+    boolean pendingSpace = false;
+    for (int i = 0; i < text.length(); ) {
+      int codePoint = text.codePointAt(i);
+      i += Character.charCount(codePoint);
+      if (Character.isWhitespace(codePoint) || Character.isSpaceChar(codePoint)) {
+        pendingSpace = normalized.length() > 0;
+      } else if (codePoint == ',') {
+        normalized.append(',');
+        pendingSpace = false;
+      } else {
+        if (pendingSpace && normalized.charAt(normalized.length() - 1) != ',') {
+          normalized.append(' ');
+        }
+        pendingSpace = false;
+        normalized.appendCodePoint(codePoint);
+      }
+    }
+    return normalized.length() == 0 ? null : normalized.toString().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Looks up the canonical location id for a normalized city name.
+   *
+   * @param key The normalized city name
+   * @return The canonical id, or null if no forecast has been fetched for this spelling yet
+   */
+  public String resolve(String key) {
+    return aliases.get(key);
+  }
+
+  /**
+   * Records the location a forecast was resolved to as the canonical id for the spelling it was
+   * requested with. New aliases are dropped once the index holds {@code maxAliases} entries.
+   *
+   * @param key The normalized city name the forecast was requested with
+   * @param forecast The forecast returned by Visual Crossing
+   * @return The canonical id to cache the forecast under, or null if the forecast names no location
+   */
+  public String learn(String key, CityInfo forecast) {
+    String location = forecast.getResolvedAddress() != null ? forecast.getResolvedAddress() : forecast.getAddress();
+    String canonical = normalize(location);
+    if (canonical == null) {
+      return null;
+    }
+    if (aliases.size() >= maxAliases) {
+      String known = aliases.get(canonical);
+      return known != null ? known : canonical;
+    }
+    String existing = aliases.putIfAbsent(canonical, canonical);
+    if (existing != null) {
+      canonical = existing;
+    }
+    aliases.put(key, canonical);
+    return canonical;
+  }
+
+  public int size() {
+    return aliases.size();
+  }
+}
@@ -0,0 +1,214 @@
+package com.weatherapp.myweatherapp.service;
+
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks how often each city is requested, per fetch profile, in memory that does not grow with
+ * the number of distinct cities. Counts live in a count-min sketch, which can only over-estimate,
+ * and are halved by {@link #decay()} so that cities which stop being requested fall out of the ranking.
+ * The {@code topK} cities with the highest estimates are kept as candidates for refresh-ahead.
+ *
+ * <p>Recording a request only updates the sketch and, for a city already ranked, its own entry.
+ * The lock guarding admission to the ranking is taken only when a city's estimate beats the
+ * coldest ranked city, whose count is published outside the lock.
+ */
+@Component
+public class CityPopularity {
+
+  private static final int DEPTH = 4;
+  private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+  private final int topK;
+  private final int widthMask;
+  private final AtomicLongArray counters;
+
+  /** Cities with the highest estimates, keyed by normalized city key and profile */
+  private final ConcurrentMap<String, HotCity> top = new ConcurrentHashMap<>();
+
+  /** Guards admissions to and evictions from the ranking */
+  private final Object admission = new Object();
+
+  /** Estimate a city must exceed to enter the ranking: the coldest ranked count, or 0 while there is room */
+  private volatile long admissionThreshold;
+
+  @Autowired
+  public CityPopularity(
+          @Value("${weather.refresh-ahead.top-k:50}") int topK,
+          @Value("${weather.refresh-ahead.sketch-width:4096}") int width) {
+    if (topK <= 0 || Integer.bitCount(width) != 1) {
+      throw new IllegalArgumentException("top-k must be positive and sketch-width a power of two");
+    }
+    this.topK = topK;
+    this.widthMask = width - 1;
+    this.counters = new AtomicLongArray(DEPTH * width);
+  }
+
+  /**
+   * Counts one request for a city's full forecast.
+   *
+   * @param key The normalized city key
+   * @param city The city name as supplied by the caller, kept so the city can be refetched
+   */
+  public void record(String key, String city) {
+    record(key, city, FetchProfile.FULL);
+  }
+
+  /**
+   * Counts one request for the parts of a city's forecast described by a fetch profile.
+   *
+   * @param key The normalized city key
+   * @param city The city name as supplied by the caller, kept so the city can be refetched
+   * @param profile The profile the caller asked for, which a refresh should fetch again
+   */
+  public void record(String key, String city, FetchProfile profile) {
+    String rankKey = WeatherService.profileKey(key, profile);
+    long estimate = increment(rankKey);
+
+    if (top.computeIfPresent(rankKey, (k, hot) -> hot.withRequests(estimate)) != null
+            || estimate <= admissionThreshold) {
+      return;
+    }
+    synchronized (admission) {
+      if (top.computeIfPresent(rankKey, (k, hot) -> hot.withRequests(estimate)) != null) {
+        return;
+      }
+      if (top.size() < topK) {
+        top.put(rankKey, new HotCity(key, city, profile, estimate));
+      } else {
+        String coldest = coldest();
+        if (estimate <= top.get(coldest).requests()) {
+          updateThreshold();
+          return;
+        }
+        top.remove(coldest);
+        top.put(rankKey, new HotCity(key, city, profile, estimate));
+      }
+      updateThreshold();
+    }
+  }
+
+  /**
+   * Estimates how many requests a city has received, with older requests weighted down by decay.
+   *
+   * @param key The normalized city key
+   * @return The estimate, which is never below the true decayed count
+   */
+  public long estimate(String key) {
+    return estimateOf(key);
+  }
+
+  /**
+   * Estimates how many requests a city has received for a fetch profile.
+   *
+   * @param key The normalized city key
+   * @param profile The fetch profile
+   * @return The estimate, which is never below the true decayed count
+   */
+  public long estimate(String key, FetchProfile profile) {
+    return estimateOf(WeatherService.profileKey(key, profile));
+  }
+
+  private long estimateOf(String rankKey) {
+    int hash = rankKey.hashCode();
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < DEPTH; row++) {
+      estimate = Math.min(estimate, counters.get(index(row, hash)));
+    }
+    return estimate;
+  }
+
+  /**
+   * Halves every count, so a request's weight halves with each decay period.
+   * Cities whose estimate reaches zero are dropped from the ranking.
+   */
+  public void decay() {
+    for (int i = 0; i < counters.length(); i++) {
+      counters.getAndUpdate(i, count -> count >> 1);
+    }
+    synchronized (admission) {
+      top.replaceAll((rankKey, hot) -> new HotCity(hot.key(), hot.city(), hot.profile(), estimateOf(rankKey)));
+      top.values().removeIf(hot -> hot.requests() == 0);
+      updateThreshold();
+    }
+  }
+
+  /**
+   * Returns the most requested cities, most popular first.
+   *
+   * @param minRequests Smallest decayed request estimate for a city to be included
+   * @return The hot cities, at most {@code topK} of them
+   */
+  public List<HotCity> hottest(long minRequests) {
+    List<HotCity> hottest = new ArrayList<>(top.values());
+    hottest.removeIf(hot -> hot.requests() < minRequests);
+    hottest.sort(Comparator.comparingLong(HotCity::requests).reversed());
+    return hottest;
+  }
+
+  /**
+   * Finds the ranking key of the coldest ranked city. Must be called holding the admission lock.
+   */
+  private String coldest() {
+    String coldest = null;
+    long requests = Long.MAX_VALUE;
+    for (Map.Entry<String, HotCity> hot : top.entrySet()) {
+      if (hot.getValue().requests() < requests) {
+        coldest = hot.getKey();
+        requests = hot.getValue().requests();
+      }
+    }
+    return coldest;
+  }
+
+  /**
+   * Publishes the count a city must beat to enter the ranking. Ranked counts only grow between
+   * decays, so a threshold read before a concurrent increment is merely conservative.
+   * Must be called holding the admission lock.
+   */
+  private void updateThreshold() {
+    admissionThreshold = top.size() < topK ? 0 : top.get(coldest()).requests();
+  }
+
+  /**
+   * Adds one to a key's counters and returns its new estimate.
+   */
+  private long increment(String rankKey) {
+    int hash = rankKey.hashCode();
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < DEPTH; row++) {
+      estimate = Math.min(estimate, counters.incrementAndGet(index(row, hash)));
+    }
+    return estimate;
+  }
+
+  private int index(int row, int hash) {
+    int h = hash * SEEDS[row];
+    h ^= h >>> 16;
+    return row * (widthMask + 1) + (h & widthMask);
+  }
+
+  /**
+   * A frequently requested city.
+   *
+   * @param key The normalized city key
+   * @param city The city name to fetch it with
+   * @param profile The fetch profile the requests asked for
+   * @param requests The decayed request estimate when the ranking was last updated
+   */
+  public record HotCity(String key, String city, FetchProfile profile, long requests) {
+
+    private HotCity withRequests(long estimate) {
+      return estimate > requests ? new HotCity(key, city, profile, estimate) : this;
+    }
+  }
+}
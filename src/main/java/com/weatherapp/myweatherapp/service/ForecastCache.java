@@ -0,0 +1,335 @@
+package com.weatherapp.myweatherapp.service;
+
+import com.weatherapp.myweatherapp.model.CityInfo;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Bounded, in-process cache of city forecasts sitting in front of the Visual Crossing repository.
+ * Entries expire a fixed time after they were written. Each entry is weighed by an estimate of
+ * the memory its forecast holds, so a 15-day timeline counts for far more than a current-conditions
+ * profile; once the cache exceeds its maximum number of entries or its byte budget, the least
+ * recently used entries are evicted to make room.
+ * When a ForecastStore is configured it backs the cache on disk: every put is handed to the
+ * store's background writer, misses are looked up in the store, and the store is replayed into memory at startup.
+ * Expired entries can be kept for a while longer so WeatherService can serve them stale while a
+ * refresh is running or while Visual Crossing is failing.
+ */
+@Component
+public class ForecastCache {
+
+  private final int maxEntries;
+  private final long maxBytes;
+  private final long ttlNanos;
+  private final long staleRetentionNanos;
+  private final LongSupplier ticker;
+
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  /** Sum of the weights of the entries, guarded by the entries lock */
+  private long weightedSize;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+
+  /** Optional on-disk tier, present when weather.cache.persistent.enabled is set */
+  @Autowired(required = false)
+  ForecastStore store;
+
+  @Autowired
+  public ForecastCache(
+          @Value("${weather.cache.max-entries:1000}") int maxEntries,
+          @Value("${weather.cache.max-size:64MB}") DataSize maxSize,
+          @Value("${weather.cache.ttl:10m}") Duration ttl,
+          @Value("${weather.cache.stale-while-revalidate:30s}") Duration staleWhileRevalidate,
+          @Value("${weather.cache.stale-if-error:10m}") Duration staleIfError) {
+    this(maxEntries, maxSize.toBytes(), ttl, max(staleWhileRevalidate, staleIfError), System::nanoTime);
+  }
+
+  ForecastCache(int maxEntries, Duration ttl, LongSupplier ticker) {
+    this(maxEntries, Long.MAX_VALUE, ttl, Duration.ZERO, ticker);
+  }
+
+  ForecastCache(int maxEntries, Duration ttl, Duration staleRetention, LongSupplier ticker) {
+    this(maxEntries, Long.MAX_VALUE, ttl, staleRetention, ticker);
+  }
+
+  ForecastCache(int maxEntries, long maxBytes, Duration ttl, Duration staleRetention, LongSupplier ticker) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("weather.cache.max-entries must be positive");
+    }
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("weather.cache.max-size must be positive");
+    }
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    this.ttlNanos = ttl.toNanos();
+    this.staleRetentionNanos = staleRetention.toNanos();
+    this.ticker = ticker;
+  }
+
+  /**
+   * Loads the forecasts persisted by a previous run, keeping their original write times so they
+   * expire on schedule.
+   */
+  @PostConstruct
+  void reloadFromStore() {
+    if (store == null) {
+      return;
+    }
+    store.forEach((key, stored) -> {
+      Entry entry = new Entry(stored.forecast(), ticker.getAsLong() - stored.age().toNanos(),
+              weigh(key, stored.forecast()));
+      synchronized (entries) {
+        insert(key, entry);
+      }
+    });
+  }
+
+  /**
+   * Looks up a forecast by its normalized city key.
+   *
+   * @param key The normalized city key
+   * @return The cached CityInfo, or null if there is no live entry for the key
+   */
+  public CityInfo get(String key) {
+    return lookup(key, true);
+  }
+
+  /**
+   * Looks up a forecast like {@link #get}, counting a hit but not a miss. For callers that fall
+   * back to another lookup on a miss, which then records the outcome, so each request is counted
+   * once.
+   *
+   * @param key The normalized city key
+   * @return The cached CityInfo, or null if there is no live entry for the key
+   */
+  public CityInfo probe(String key) {
+    return lookup(key, false);
+  }
+
+  private CityInfo lookup(String key, boolean countMiss) {
+    long now = ticker.getAsLong();
+    synchronized (entries) {
+      Entry entry = entries.get(key);
+      if (entry != null && now - entry.writtenAt >= ttlNanos) {
+        if (now - entry.writtenAt >= ttlNanos + staleRetentionNanos) {
+          weightedSize -= entries.remove(key).weight;
+          expirations.increment();
+        }
+        entry = null;
+      }
+      if (entry != null) {
+        hits.increment();
+        return entry.value;
+      }
+    }
+
+    CityInfo stored = store == null ? null : getFromStore(key, now);
+    if (stored == null) {
+      if (countMiss) {
+        misses.increment();
+      }
+      return null;
+    }
+    hits.increment();
+    return stored;
+  }
+
+  private CityInfo getFromStore(String key, long now) {
+    ForecastStore.StoredForecast stored = store.get(key);
+    if (stored == null) {
+      return null;
+    }
+    Entry entry = new Entry(stored.forecast(), now - stored.age().toNanos(), weigh(key, stored.forecast()));
+    synchronized (entries) {
+      if (!entries.containsKey(key)) {
+        insert(key, entry);
+      }
+    }
+    return stored.forecast();
+  }
+
+  /**
+   * Looks up a forecast that has expired but is still retained for stale serving.
+   * Does not count towards hits or misses.
+   *
+   * @param key The normalized city key
+   * @return The expired forecast and how long ago it expired, or null if there is none
+   */
+  public StaleForecast getStale(String key) {
+    long now = ticker.getAsLong();
+    synchronized (entries) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      long expiredFor = now - entry.writtenAt - ttlNanos;
+      if (expiredFor < 0 || expiredFor >= staleRetentionNanos) {
+        return null;
+      }
+      return new StaleForecast(entry.value, Duration.ofNanos(expiredFor));
+    }
+  }
+
+  /**
+   * Returns how long a cached forecast stays fresh, without counting as a hit or miss.
+   *
+   * @param key The normalized city key
+   * @return The time until the entry expires, negative if it is being retained stale,
+   *         or null if the key is not in memory
+   */
+  public Duration timeToExpiry(String key) {
+    long now = ticker.getAsLong();
+    synchronized (entries) {
+      Entry entry = entries.get(key);
+      return entry == null ? null : Duration.ofNanos(entry.writtenAt + ttlNanos - now);
+    }
+  }
+
+  /**
+   * Stores a forecast under its normalized city key, evicting the least recently used entries
+   * while the cache is over its entry count or byte budget.
+   *
+   * @param key The normalized city key
+   * @param value The forecast to cache
+   */
+  public void put(String key, CityInfo value) {
+    Entry entry = new Entry(value, ticker.getAsLong(), weigh(key, value));
+    synchronized (entries) {
+      insert(key, entry);
+    }
+    if (store != null) {
+      store.put(key, value);
+    }
+  }
+
+  /**
+   * Removes every entry from the cache and its store. Statistics are left untouched.
+   */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+      weightedSize = 0;
+    }
+    if (store != null) {
+      store.clear();
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /**
+   * Returns the estimated memory held by the cached forecasts.
+   *
+   * @return The sum of the entries' estimated sizes in bytes
+   */
+  public long weightedSize() {
+    synchronized (entries) {
+      return weightedSize;
+    }
+  }
+
+  /**
+   * Adds or replaces an entry, then evicts least recently used entries until the cache is within
+   * its limits. The entry just added is kept even if it alone exceeds the byte budget.
+   * Must be called holding the entries lock.
+   */
+  private void insert(String key, Entry entry) {
+    Entry replaced = entries.put(key, entry);
+    weightedSize += entry.weight - (replaced == null ? 0 : replaced.weight);
+    Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+    while ((entries.size() > maxEntries || weightedSize > maxBytes) && entries.size() > 1) {
+      Map.Entry<String, Entry> evicted = eldest.next();
+      weightedSize -= evicted.getValue().weight;
+      eldest.remove();
+      evictions.increment();
+    }
+  }
+
+  /**
+   * Estimates the heap a cached forecast occupies: object headers and fields, plus the
+   * characters of its strings. Only the relative weight of entries matters for eviction, so the
+   * constants are rough 64-bit JVM sizes with compressed references.
+   *
+   * @param key The cache key the forecast is stored under
+   * @param value The forecast
+   * @return The estimated size in bytes
+   */
+  static long weigh(String key, CityInfo value) {
+    // Map node, Entry record and key string
+    long size = 32 + 24 + sizeOf(key);
+    if (value == null) {
+      return size;
+    }
+    size += 32 + sizeOf(value.getAddress()) + sizeOf(value.getResolvedAddress()) + sizeOf(value.getDescription());
+    CityInfo.CurrentConditions current = value.getCurrentConditions();
+    if (current != null) {
+      size += 48 + sizeOf(current.conditions());
+    }
+    List<CityInfo.Days> days = value.getDays();
+    if (days != null) {
+      size += 24 + 16 + 4L * days.size();
+      for (CityInfo.Days day : days) {
+        size += 48 + sizeOf(day.date()) + sizeOf(day.conditions()) + sizeOf(day.description());
+      }
+    }
+    return size;
+  }
+
+  private static long sizeOf(String s) {
+    // String object plus its byte array; Latin-1 text takes a byte per character
+    return s == null ? 0 : 24 + 16 + s.length();
+  }
+
+  /**
+   * Returns a point-in-time snapshot of the cache counters.
+   *
+   * @return CacheStats holding hit, miss, eviction and expiration counts
+   */
+  public CacheStats stats() {
+    return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size());
+  }
+
+  /**
+   * Snapshot of cache activity since startup.
+   */
+  public record CacheStats(long hits, long misses, long evictions, long expirations, int size) {
+
+    public double hitRatio() {
+      long requests = hits + misses;
+      return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+  }
+
+  /**
+   * An expired forecast retained for stale serving.
+   *
+   * @param value The expired forecast
+   * @param expiredFor How long ago the forecast expired
+   */
+  public record StaleForecast(CityInfo value, Duration expiredFor) {
+  }
+
+  private record Entry(CityInfo value, long writtenAt, long weight) {
+  }
+
+  private static Duration max(Duration a, Duration b) {
+    return a.compareTo(b) >= 0 ? a : b;
+  }
+}
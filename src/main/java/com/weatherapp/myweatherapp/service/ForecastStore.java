@@ -0,0 +1,406 @@
+package com.weatherapp.myweatherapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapp.myweatherapp.model.CityInfo;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Append-only file of cached forecasts that outlives the process, so a restarted instance can
+ * answer from the forecasts its predecessor fetched instead of going back to Visual Crossing.
+ *
+ * <p>Each line holds the write time in epoch milliseconds, the cache key as a JSON string and the
+ * forecast as JSON, separated by tabs. Only an index of keys to file offsets is kept in memory.
+ * A later line for the same key supersedes earlier ones, and the file is rewritten without
+ * superseded and expired lines once they make up most of it.
+ *
+ * <p>Writes and compaction run on a single background writer thread, so callers, including the
+ * reactive pipeline on its event loop, never wait for the disk or for JSON serialization. A
+ * forecast waiting to be written is served from memory until it is. Reads only look up the index
+ * and read their line; compaction builds the new file and index aside and then swaps them in, so
+ * it never stalls a lookup.
+ *
+ * <p>The store is a best-effort cache: an entry that cannot be read or written is treated as
+ * missing rather than failing the lookup.
+ */
+public class ForecastStore implements Closeable {
+
+  private static final byte SEPARATOR = '\t';
+  private static final byte NEWLINE = '\n';
+
+  /** Superseded bytes tolerated before the file is compacted */
+  private static final long MIN_COMPACTION_BYTES = 1024 * 1024;
+
+  private final Path file;
+  private final long ttlMillis;
+  private final ObjectMapper mapper;
+  private final LongSupplier clock;
+
+  /** Forecasts handed to the writer but not yet in the file, by cache key */
+  private final ConcurrentMap<String, PendingWrite> pending = new ConcurrentHashMap<>();
+  private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "forecast-store-writer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /** The file and its index, replaced as a whole by compaction */
+  private volatile Segment segment;
+  /** Offset where the next line is appended, owned by the writer */
+  private long end;
+  private final AtomicLong liveBytes = new AtomicLong();
+
+  public ForecastStore(Path file, Duration ttl, ObjectMapper mapper) throws IOException {
+    this(file, ttl, mapper, System::currentTimeMillis);
+  }
+
+  ForecastStore(Path file, Duration ttl, ObjectMapper mapper, LongSupplier clock) throws IOException {
+    this.file = file;
+    this.ttlMillis = ttl.toMillis();
+    this.mapper = mapper;
+    this.clock = clock;
+
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    open();
+    if (end > liveBytes.get()) {
+      compact();
+    }
+  }
+
+  /**
+   * Reads a forecast by its cache key.
+   *
+   * @param key The cache key
+   * @return The stored forecast with its age, or null if there is no live entry for the key
+   */
+  public StoredForecast get(String key) {
+    long now = clock.getAsLong();
+    PendingWrite write = pending.get(key);
+    if (write != null) {
+      long age = now - write.writtenAt;
+      return age >= ttlMillis ? null : new StoredForecast(write.forecast, Duration.ofMillis(Math.max(age, 0)));
+    }
+    while (true) {
+      Segment current = segment;
+      Location location = current.index.get(key);
+      if (location == null) {
+        return null;
+      }
+      long age = now - location.writtenAt;
+      if (age >= ttlMillis) {
+        drop(current, key, location);
+        return null;
+      }
+      try {
+        return new StoredForecast(read(current, location), Duration.ofMillis(Math.max(age, 0)));
+      } catch (ClosedChannelException e) {
+        if (segment == current) {
+          return null;
+        }
+        // Compaction swapped the file while the line was read; look it up in the new one
+      } catch (IOException e) {
+        drop(current, key, location);
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Hands a forecast to the writer to be appended under its cache key, superseding any earlier
+   * entry for the key. Returns without waiting for the write; a newer forecast for the same key
+   * that arrives before the write replaces it.
+   *
+   * @param key The cache key
+   * @param forecast The forecast to store
+   */
+  public void put(String key, CityInfo forecast) {
+    if (pending.put(key, new PendingWrite(forecast, clock.getAsLong())) == null) {
+      try {
+        writer.execute(() -> writePending(key));
+      } catch (RejectedExecutionException e) {
+        // Closed; the in-memory tier still holds the forecast
+        pending.remove(key);
+      }
+    }
+  }
+
+  /**
+   * Writes the latest pending forecast for a key, again if a newer one arrived meanwhile.
+   * Runs on the writer.
+   */
+  private void writePending(String key) {
+    PendingWrite write;
+    while ((write = pending.get(key)) != null) {
+      append(key, write.forecast, write.writtenAt);
+      if (pending.remove(key, write)) {
+        return;
+      }
+    }
+  }
+
+  private void append(String key, CityInfo forecast, long writtenAt) {
+    Segment current = segment;
+    try {
+      byte[] header = (writtenAt + "\t" + mapper.writeValueAsString(key) + "\t").getBytes(StandardCharsets.UTF_8);
+      byte[] body = mapper.writeValueAsBytes(forecast);
+      ByteBuffer line = ByteBuffer.allocate(header.length + body.length + 1);
+      line.put(header).put(body).put(NEWLINE).flip();
+
+      long start = end;
+      while (line.hasRemaining()) {
+        current.channel.write(line, start + line.position());
+      }
+      end += line.capacity();
+      Location location = new Location(writtenAt, start, start + header.length, end - 1);
+      Location previous = current.index.put(key, location);
+      long live = liveBytes.addAndGet(location.lineLength() - (previous == null ? 0 : previous.lineLength()));
+
+      if (end - live > Math.max(live, MIN_COMPACTION_BYTES)) {
+        compact();
+      }
+    } catch (IOException e) {
+      // Leave the entry uncached; the in-memory tier still holds it
+    }
+  }
+
+  /**
+   * Passes every live entry to the consumer, oldest first, so that replaying them into an LRU
+   * cache leaves the most recently written forecasts resident.
+   *
+   * @param consumer Receives each cache key and its stored forecast
+   */
+  public void forEach(BiConsumer<String, StoredForecast> consumer) {
+    List<Map.Entry<String, Location>> live = new ArrayList<>(segment.index.entrySet());
+    live.sort(Comparator.comparingLong(entry -> entry.getValue().writtenAt));
+    for (Map.Entry<String, Location> entry : live) {
+      StoredForecast stored = get(entry.getKey());
+      if (stored != null) {
+        consumer.accept(entry.getKey(), stored);
+      }
+    }
+  }
+
+  /**
+   * Removes every entry and truncates the file, waiting for the writer to do so.
+   */
+  public void clear() {
+    pending.clear();
+    runOnWriter(() -> {
+      Segment current = segment;
+      try {
+        current.channel.truncate(0);
+      } catch (IOException e) {
+        // The index is still cleared, so stale lines are never served
+      }
+      current.index.clear();
+      end = 0;
+      liveBytes.set(0);
+    });
+  }
+
+  public int size() {
+    return segment.index.size();
+  }
+
+  /**
+   * Finishes the writes already handed to the writer, then closes the file.
+   */
+  @Override
+  public void close() throws IOException {
+    writer.shutdown();
+    try {
+      writer.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    segment.channel.close();
+  }
+
+  private void runOnWriter(Runnable task) {
+    try {
+      writer.submit(task).get();
+    } catch (ExecutionException | RejectedExecutionException e) {
+      // Best effort, like every other store operation
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void open() throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    Map<String, Location> index = new HashMap<>();
+    liveBytes.set(0);
+
+    long now = clock.getAsLong();
+    long offset = 0;
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+      ByteArrayOutputStream header = new ByteArrayOutputStream();
+      int separators = 0;
+      long lineStart = 0;
+      long bodyStart = -1;
+      int b;
+      while ((b = in.read()) != -1) {
+        offset++;
+        if (b == NEWLINE) {
+          if (bodyStart >= 0) {
+            index(index, header.toString(StandardCharsets.UTF_8), lineStart, bodyStart, offset - 1, now);
+          }
+          header.reset();
+          separators = 0;
+          lineStart = offset;
+          bodyStart = -1;
+        } else if (separators < 2) {
+          if (b == SEPARATOR && ++separators == 2) {
+            bodyStart = offset;
+          } else {
+            header.write(b);
+          }
+        }
+      }
+      // A line without its newline was cut short by a crash; appends start where it began
+      end = lineStart;
+    }
+    if (end < channel.size()) {
+      channel.truncate(end);
+    }
+    segment = new Segment(channel, new ConcurrentHashMap<>(index));
+  }
+
+  private void index(Map<String, Location> index, String header, long lineStart, long bodyStart, long lineEnd, long now) {
+    int split = header.indexOf(SEPARATOR);
+    if (split < 0) {
+      return;
+    }
+    try {
+      long writtenAt = Long.parseLong(header.substring(0, split));
+      String key = mapper.readValue(header.substring(split + 1), String.class);
+      Location location = new Location(writtenAt, lineStart, bodyStart, lineEnd);
+      Location previous = index.get(key);
+      if (now - writtenAt >= ttlMillis || (previous != null && previous.writtenAt > writtenAt)) {
+        return;
+      }
+      index.put(key, location);
+      liveBytes.addAndGet(location.lineLength() - (previous == null ? 0 : previous.lineLength()));
+    } catch (NumberFormatException | IOException e) {
+      // Skip lines that were not written by this store
+    }
+  }
+
+  private CityInfo read(Segment segment, Location location) throws IOException {
+    ByteBuffer body = ByteBuffer.allocate(location.bodyLength());
+    while (body.hasRemaining()) {
+      if (segment.channel.read(body, location.bodyStart + body.position()) < 0) {
+        throw new IOException("Forecast store truncated at " + location.bodyStart);
+      }
+    }
+    return mapper.readValue(body.array(), CityInfo.class);
+  }
+
+  private void drop(Segment segment, String key, Location location) {
+    if (segment.index.remove(key, location)) {
+      liveBytes.addAndGet(-location.lineLength());
+    }
+  }
+
+  /**
+   * Rewrites the file with only the live entries, replacing it atomically so a crash part-way
+   * through leaves the previous file intact. Runs on the writer, or in the constructor before
+   * the store is shared, so no line is appended meanwhile; lookups keep reading the old file
+   * until the new file and its index are swapped in.
+   */
+  private void compact() throws IOException {
+    Segment current = segment;
+    Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+    Map<String, Location> index = new HashMap<>();
+    long now = clock.getAsLong();
+    long offset = 0;
+    try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      for (Map.Entry<String, Location> entry : current.index.entrySet()) {
+        Location location = entry.getValue();
+        if (now - location.writtenAt >= ttlMillis) {
+          continue;
+        }
+        long lineLength = location.lineLength();
+        long copied = 0;
+        while (copied < lineLength) {
+          copied += current.channel.transferTo(location.lineStart + copied, lineLength - copied, out);
+        }
+        index.put(entry.getKey(), location.movedTo(offset));
+        offset += lineLength;
+      }
+      out.force(true);
+    }
+    Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    end = offset;
+    liveBytes.set(offset);
+    segment = new Segment(channel, new ConcurrentHashMap<>(index));
+    current.channel.close();
+  }
+
+  /**
+   * A forecast read back from the store.
+   *
+   * @param forecast The stored forecast
+   * @param age How long ago the forecast was written
+   */
+  public record StoredForecast(CityInfo forecast, Duration age) {
+  }
+
+  /** An open store file with the index of the lines in it */
+  private record Segment(FileChannel channel, ConcurrentMap<String, Location> index) {
+  }
+
+  /** A forecast waiting for the writer, with the time it was handed over */
+  private record PendingWrite(CityInfo forecast, long writtenAt) {
+  }
+
+  /** Position of a line in the file; lineEnd is the offset of its terminating newline */
+  private record Location(long writtenAt, long lineStart, long bodyStart, long lineEnd) {
+
+    Location movedTo(long lineStart) {
+      long shift = lineStart - this.lineStart;
+      return new Location(writtenAt, lineStart, bodyStart + shift, lineEnd + shift);
+    }
+
+    int bodyLength() {
+      return (int) (lineEnd - bodyStart);
+    }
+
+    long lineLength() {
+      return lineEnd + 1 - lineStart;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.weatherapp.myweatherapp.service;
+
+import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import com.weatherapp.myweatherapp.repository.VisualcrossingReactiveRepository;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of WeatherService. It shares the forecast cache with the blocking
+ * path and coalesces concurrent lookups for the same city into a single upstream call.
+ */
+@Service
+public class ReactiveWeatherService {
+
+  @Autowired
+  VisualcrossingReactiveRepository weatherRepo;
+
+  @Autowired
+  ForecastCache forecastCache;
+
+  @Autowired
+  CityPopularity cityPopularity;
+
+  @Autowired
+  CityCanonicalizer cityCanonicalizer;
+
+  /** Upstream fetches currently in progress, keyed by normalized city name */
+  private final ConcurrentMap<String, CompletableFuture<CityInfo>> inFlight = new ConcurrentHashMap<>();
+
+  public Mono<CityInfo> forecastByCity(String city) {
+    return forecastByCity(city, FetchProfile.FULL);
+  }
+
+  /**
+   * Retrieves the parts of a city's forecast described by a fetch profile.
+   * A cached full forecast also satisfies narrower profiles.
+   *
+   * @param city The city name as supplied by the caller
+   * @param profile The sections and elements the caller needs
+   * @return Mono emitting the CityInfo, holding at least the sections of the profile
+   */
+  public Mono<CityInfo> forecastByCity(String city, FetchProfile profile) {
+    String key = WeatherService.cacheKey(city);
+    if (key == null) {
+      return fetchFromRepository(city, profile);
+    }
+
+    return Mono.defer(() -> {
+      String canonical = cityCanonicalizer.resolve(key);
+      String resolvedKey = canonical != null ? canonical : key;
+      cityPopularity.record(resolvedKey, city, profile);
+      CityInfo cached = WeatherService.cachedForProfile(forecastCache, resolvedKey, profile);
+      if (cached != null) {
+        return Mono.just(cached);
+      }
+      return fetchOnce(resolvedKey, city, profile);
+    });
+  }
+
+  /**
+   * Subscribes to the repository for a city unless a fetch for the same key is already running,
+   * in which case the caller shares that fetch's outcome. The fetch is not tied to any caller's
+   * subscription: a caller that cancels only stops waiting, and the fetch still completes for the
+   * others and fills the cache.
+   */
+  private Mono<CityInfo> fetchOnce(String key, String city, FetchProfile profile) {
+    String profileKey = WeatherService.profileKey(key, profile);
+    CompletableFuture<CityInfo> call = new CompletableFuture<>();
+    CompletableFuture<CityInfo> existing = inFlight.putIfAbsent(profileKey, call);
+    if (existing != null) {
+      return Mono.fromFuture(existing.copy());
+    }
+
+    fetchFromRepository(city, profile)
+            .doOnNext(ci -> {
+              String canonical = cityCanonicalizer.learn(key, ci);
+              forecastCache.put(WeatherService.profileKey(canonical != null ? canonical : key, profile), ci);
+            })
+            .doFinally(signal -> inFlight.remove(profileKey, call))
+            .subscribe(call::complete, call::completeExceptionally, () -> call.complete(null));
+    return Mono.fromFuture(call.copy());
+  }
+
+  private Mono<CityInfo> fetchFromRepository(String city, FetchProfile profile) {
+    if (profile == FetchProfile.FULL) {
+      return weatherRepo.getByCity(city);
+    }
+    return weatherRepo.getByCity(city, profile);
+  }
+}
@@ -0,0 +1,221 @@
+package com.weatherapp.myweatherapp.service;
+
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import com.weatherapp.myweatherapp.repository.UpstreamPriority;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes the forecasts of the most requested cities shortly before they expire, so requests
+ * for hot cities are answered from the cache instead of waiting on Visual Crossing.
+ *
+ * <p>Every {@code interval} the scheduler looks at the hottest cities in CityPopularity and
+ * picks those whose cached forecast expires within {@code window}, or that are not cached at all.
+ * Each refresh is delayed by a random jitter, capped at half the time the forecast has left, so
+ * cities cached together are not all refetched in the same instant.
+ *
+ * <p>A city is refreshed with the fetch profile its requests asked for, so a city only compared
+ * for daylight costs one record rather than a full 15-day timeline. Refreshes are also capped at
+ * {@code records-per-day} records, spread evenly over the day, so refresh-ahead cannot spend the
+ * Visual Crossing quota that user requests need.
+ *
+ * <p>A city whose refresh fails, say because it keeps returning 404 or 5xx, is backed off: it is
+ * skipped for twice the interval, doubling with each further failure up to {@code max-backoff}.
+ * The back-off ends early once the city's forecast is written again, such as by a user request
+ * that succeeded.
+ */
+@Component
+@ConditionalOnProperty(name = "weather.refresh-ahead.enabled", havingValue = "true")
+public class RefreshAheadScheduler {
+
+  @Autowired
+  WeatherService weatherService;
+
+  @Autowired
+  ForecastCache forecastCache;
+
+  @Autowired
+  CityPopularity cityPopularity;
+
+  @Value("${weather.refresh-ahead.interval:15s}")
+  Duration interval;
+
+  @Value("${weather.refresh-ahead.window:2m}")
+  Duration window;
+
+  @Value("${weather.refresh-ahead.jitter:10s}")
+  Duration jitter;
+
+  @Value("${weather.refresh-ahead.half-life:5m}")
+  Duration halfLife;
+
+  @Value("${weather.refresh-ahead.min-requests:5}")
+  long minRequests;
+
+  @Value("${weather.refresh-ahead.concurrency:2}")
+  int concurrency;
+
+  /** Records refresh-ahead may spend per day, or 0 for no cap beyond the upstream rate limit */
+  @Value("${weather.refresh-ahead.records-per-day:250}")
+  int recordsPerDay;
+
+  /** Longest a city whose refreshes keep failing is skipped for */
+  @Value("${weather.refresh-ahead.max-backoff:30m}")
+  Duration maxBackoff = Duration.ofMinutes(30);
+
+  /** Records refresh-ahead may spend now, refilled continuously; only touched by refreshHotCities */
+  private double budget;
+  private long budgetRefilledAt;
+
+  /** Keys with a refresh scheduled or running, so a slow refresh is not scheduled twice */
+  private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+  /** Keys whose last refresh failed, with when they may be tried again */
+  private final ConcurrentMap<String, Backoff> backoffs = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService scheduler;
+
+  @PostConstruct
+  void start() {
+    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(concurrency, runnable -> {
+      Thread thread = new Thread(runnable, "weather-refresh-ahead");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.setRemoveOnCancelPolicy(true);
+    scheduler = executor;
+    budget = budgetCapacity();
+    budgetRefilledAt = System.nanoTime();
+    scheduler.scheduleWithFixedDelay(this::refreshHotCities,
+            interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    scheduler.scheduleAtFixedRate(cityPopularity::decay,
+            halfLife.toMillis(), halfLife.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    scheduler.shutdownNow();
+  }
+
+  /**
+   * Schedules a jittered refresh for every hot city whose forecast is missing or about to expire,
+   * hottest first, while the refresh budget lasts.
+   */
+  void refreshHotCities() {
+    refillBudget();
+    long now = System.nanoTime();
+    // Forget cities that failed long ago and have not been hot since
+    backoffs.values().removeIf(backoff -> now - backoff.retryAt > maxBackoff.toNanos());
+    for (CityPopularity.HotCity hot : cityPopularity.hottest(minRequests)) {
+      String key = WeatherService.profileKey(hot.key(), hot.profile());
+      Duration left = timeToExpiry(hot);
+      if (backingOff(key, left, now)) {
+        continue;
+      }
+      if (left != null && left.compareTo(window) > 0) {
+        continue;
+      }
+      if (recordsPerDay > 0 && budget < hot.profile().records()) {
+        break;
+      }
+      if (!pending.add(key)) {
+        continue;
+      }
+      budget -= hot.profile().records();
+      long maxDelay = jitter.toMillis();
+      if (left != null && !left.isNegative()) {
+        maxDelay = Math.min(maxDelay, left.toMillis() / 2);
+      }
+      long delay = maxDelay > 0 ? ThreadLocalRandom.current().nextLong(maxDelay) : 0;
+      scheduler.schedule(() -> refresh(key, hot), delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Returns how long a hot city's forecast has left. A narrow profile is also answered by the
+   * city's full forecast, so the longer-lived of the two counts.
+   */
+  private Duration timeToExpiry(CityPopularity.HotCity hot) {
+    Duration left = forecastCache.timeToExpiry(WeatherService.profileKey(hot.key(), hot.profile()));
+    if (hot.profile() != FetchProfile.FULL) {
+      Duration full = forecastCache.timeToExpiry(hot.key());
+      if (full != null && (left == null || full.compareTo(left) > 0)) {
+        left = full;
+      }
+    }
+    return left;
+  }
+
+  /**
+   * Whether a city's last refresh failed and it should not be tried again yet. Ends the back-off
+   * if the forecast has been written since the failure.
+   */
+  private boolean backingOff(String key, Duration left, long now) {
+    Backoff backoff = backoffs.get(key);
+    if (backoff == null) {
+      return false;
+    }
+    if (expiresAt(left, now) > backoff.expiresAt) {
+      backoffs.remove(key, backoff);
+      return false;
+    }
+    return now - backoff.retryAt < 0;
+  }
+
+  private static long expiresAt(Duration left, long now) {
+    return left == null ? Long.MIN_VALUE : now + left.toNanos();
+  }
+
+  private void refillBudget() {
+    long now = System.nanoTime();
+    double perNano = (double) recordsPerDay / TimeUnit.DAYS.toNanos(1);
+    budget = Math.min(budgetCapacity(), budget + (now - budgetRefilledAt) * perNano);
+    budgetRefilledAt = now;
+  }
+
+  /** An hour's worth of the daily budget, but always enough for one full refresh */
+  private double budgetCapacity() {
+    return Math.max(FetchProfile.FULL.records(), recordsPerDay / 24.0);
+  }
+
+  private void refresh(String key, CityPopularity.HotCity hot) {
+    try {
+      weatherService.refreshForecast(hot.city(), hot.profile(), UpstreamPriority.BACKGROUND);
+      backoffs.remove(key);
+    } catch (RuntimeException e) {
+      // Leave the current forecast in place and retry once the back-off has passed
+      long now = System.nanoTime();
+      long expiresAt = expiresAt(timeToExpiry(hot), now);
+      backoffs.compute(key, (k, previous) -> {
+        int failures = previous == null ? 1 : previous.failures + 1;
+        long delay = Math.min(maxBackoff.toNanos(), interval.toNanos() << Math.min(failures, 20));
+        return new Backoff(failures, now + delay, expiresAt);
+      });
+    } finally {
+      pending.remove(key);
+    }
+  }
+
+  /**
+   * A city whose refreshes failed.
+   *
+   * @param failures Refreshes that failed in a row
+   * @param retryAt System.nanoTime() after which the city may be refreshed again
+   * @param expiresAt When the forecast cached at the last failure expires, or Long.MIN_VALUE if
+   *                  there was none; a later expiry means the forecast has been written since
+   */
+  private record Backoff(int failures, long retryAt, long expiresAt) {
+  }
+}
@@ -0,0 +1,173 @@
+package com.weatherapp.myweatherapp.service;
+
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Latency histograms and counters for the service and repository layers, plus the forecast cache.
+ *
+ * <p>Every timer is registered up front and looked up by enum ordinal, so recording on the request
+ * path is a clock read and an array access with no tag or map lookups. Timers publish percentile
+ * histograms, which Prometheus aggregates across instances with histogram_quantile.
+ *
+ * <p>Cache hits are the exception. A histogram timer costs more than the hit itself and contends
+ * across threads (see WeatherMetricsBenchmark), so hits only add to striped counters that are
+ * published as {@code weather.lookups.cached} with a count and total time.
+ *
+ * <p>Endpoint latencies and upstream HTTP calls by status are recorded by Spring Boot as
+ * {@code http.server.requests} and {@code http.client.requests}.
+ */
+@Component
+public class WeatherMetrics {
+
+  /**
+   * Where a forecast lookup was answered from.
+   */
+  public enum Lookup {
+    /** A fresh cached forecast */
+    CACHE,
+    /** An expired forecast, served while refreshing or because Visual Crossing failed */
+    STALE,
+    /** A forecast fetched from Visual Crossing, possibly by a concurrent caller */
+    UPSTREAM,
+    /** No forecast; the lookup threw */
+    ERROR
+  }
+
+  private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+  private static final Duration MAX_EXPECTED = Duration.ofSeconds(30);
+
+  /** weather.lookups timers indexed by profile, then lookup source; null for CACHE */
+  private final Timer[][] lookups;
+
+  /** Count and total nanoseconds of cache hits, indexed by profile */
+  private final LongAdder[] cachedCount;
+  private final LongAdder[] cachedNanos;
+
+  /** weather.repository.fetches timers indexed by profile, then success (1) or failure (0) */
+  private final Timer[][] fetches;
+
+  /** Repository fetches currently in progress */
+  private final AtomicInteger activeFetches = new AtomicInteger();
+
+  @Autowired
+  public WeatherMetrics(MeterRegistry registry, ForecastCache forecastCache) {
+    FetchProfile[] profiles = FetchProfile.values();
+    lookups = new Timer[profiles.length][Lookup.values().length];
+    fetches = new Timer[profiles.length][2];
+    cachedCount = new LongAdder[profiles.length];
+    cachedNanos = new LongAdder[profiles.length];
+    for (FetchProfile profile : profiles) {
+      String profileTag = profile.name().toLowerCase(Locale.ROOT);
+      for (Lookup lookup : Lookup.values()) {
+        if (lookup != Lookup.CACHE) {
+          lookups[profile.ordinal()][lookup.ordinal()] = timer("weather.lookups",
+                  "Forecast lookups by the service that missed the cache", profileTag)
+                  .tag("source", lookup.name().toLowerCase(Locale.ROOT))
+                  .register(registry);
+        }
+      }
+      LongAdder count = new LongAdder();
+      LongAdder nanos = new LongAdder();
+      cachedCount[profile.ordinal()] = count;
+      cachedNanos[profile.ordinal()] = nanos;
+      FunctionTimer.builder("weather.lookups.cached", count, LongAdder::sum, c -> nanos.sum(), TimeUnit.NANOSECONDS)
+              .description("Forecast lookups by the service answered from the cache")
+              .tag("profile", profileTag)
+              .register(registry);
+      fetches[profile.ordinal()][0] = timer("weather.repository.fetches",
+              "Forecast fetches from the repository", profileTag)
+              .tag("outcome", "error")
+              .register(registry);
+      fetches[profile.ordinal()][1] = timer("weather.repository.fetches",
+              "Forecast fetches from the repository", profileTag)
+              .tag("outcome", "success")
+              .register(registry);
+    }
+
+    Gauge.builder("weather.repository.fetches.active", activeFetches, AtomicInteger::get)
+            .description("Repository fetches in progress")
+            .register(registry);
+    FunctionCounter.builder("weather.cache.requests", forecastCache, cache -> cache.stats().hits())
+            .description("Forecast cache lookups")
+            .tag("result", "hit")
+            .register(registry);
+    FunctionCounter.builder("weather.cache.requests", forecastCache, cache -> cache.stats().misses())
+            .description("Forecast cache lookups")
+            .tag("result", "miss")
+            .register(registry);
+    FunctionCounter.builder("weather.cache.evictions", forecastCache, cache -> cache.stats().evictions())
+            .description("Forecasts evicted to make room for newer ones")
+            .register(registry);
+    FunctionCounter.builder("weather.cache.expirations", forecastCache, cache -> cache.stats().expirations())
+            .description("Forecasts dropped after their retention ended")
+            .register(registry);
+    Gauge.builder("weather.cache.size", forecastCache, ForecastCache::size)
+            .description("Forecasts held in memory")
+            .register(registry);
+    Gauge.builder("weather.cache.weight", forecastCache, ForecastCache::weightedSize)
+            .description("Estimated memory held by cached forecasts")
+            .baseUnit("bytes")
+            .register(registry);
+    Gauge.builder("weather.cache.hit.ratio", forecastCache, cache -> cache.stats().hitRatio())
+            .description("Share of cache lookups that were hits since startup")
+            .register(registry);
+  }
+
+  /**
+   * Records a completed forecast lookup.
+   *
+   * @param profile The profile that was looked up
+   * @param lookup Where the lookup was answered from
+   * @param startNanos The System.nanoTime() at which the lookup started
+   */
+  public void recordLookup(FetchProfile profile, Lookup lookup, long startNanos) {
+    long elapsed = System.nanoTime() - startNanos;
+    if (lookup == Lookup.CACHE) {
+      cachedCount[profile.ordinal()].increment();
+      cachedNanos[profile.ordinal()].add(elapsed);
+    } else {
+      lookups[profile.ordinal()][lookup.ordinal()].record(elapsed, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Marks the start of a repository fetch, counted by the active fetches gauge until
+   * {@link #fetchFinished} is called.
+   */
+  public void fetchStarted() {
+    activeFetches.incrementAndGet();
+  }
+
+  /**
+   * Records a repository fetch started with {@link #fetchStarted}.
+   *
+   * @param profile The profile that was fetched
+   * @param success Whether the repository returned normally
+   * @param startNanos The System.nanoTime() at which the fetch started
+   */
+  public void fetchFinished(FetchProfile profile, boolean success, long startNanos) {
+    activeFetches.decrementAndGet();
+    fetches[profile.ordinal()][success ? 1 : 0].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  private static Timer.Builder timer(String name, String description, String profile) {
+    return Timer.builder(name)
+            .description(description)
+            .tag("profile", profile)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(MIN_EXPECTED)
+            .maximumExpectedValue(MAX_EXPECTED);
+  }
+}
@@ -1,8 +1,21 @@
 package com.weatherapp.myweatherapp.service;
 
 import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import com.weatherapp.myweatherapp.repository.UpstreamGuard;
+import com.weatherapp.myweatherapp.repository.UpstreamPriority;
 import com.weatherapp.myweatherapp.repository.VisualcrossingRepository;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -11,8 +24,322 @@ public class WeatherService {
   @Autowired
   VisualcrossingRepository weatherRepo;
 
+  @Autowired
+  ForecastCache forecastCache;
+
+  @Autowired
+  CityPopularity cityPopularity;
+
+  @Autowired
+  CityCanonicalizer cityCanonicalizer;
+
+  @Autowired
+  WeatherMetrics metrics;
+
+  /** Runs background refreshes of stale forecasts; rejects them once saturated */
+  @Autowired
+  @Qualifier("forecastRefreshExecutor")
+  Executor refreshExecutor;
+
+  /** How long after expiry a forecast is still served while it is refreshed in the background */
+  @Value("${weather.cache.stale-while-revalidate:30s}")
+  Duration staleWhileRevalidate;
+
+  /** How long after expiry a forecast is still served when Visual Crossing is failing */
+  @Value("${weather.cache.stale-if-error:10m}")
+  Duration staleIfError;
+
+  /** Upstream fetches currently in progress, keyed by normalized city name */
+  private final ConcurrentMap<String, CompletableFuture<CityInfo>> inFlight = new ConcurrentHashMap<>();
+
   public CityInfo forecastByCity(String city) {
+    return forecastByCity(city, FetchProfile.FULL);
+  }
+
+  /**
+   * Retrieves the parts of a city's forecast described by a fetch profile.
+   * A cached full forecast also satisfies narrower profiles.
+   *
+   * <p>A forecast that expired less than {@code staleWhileRevalidate} ago is returned at once
+   * while a single background fetch replaces it. One that expired less than {@code staleIfError}
+   * ago is fetched again, but returned instead of the error if Visual Crossing is unavailable.
+   *
+   * @param city The city name as supplied by the caller
+   * @param profile The sections and elements the caller needs
+   * @return The CityInfo, holding at least the sections of the profile
+   */
+  public CityInfo forecastByCity(String city, FetchProfile profile) {
+    long start = System.nanoTime();
+    String key = canonicalKey(city);
+    if (key == null) {
+      return fetched(null, city, profile, start);
+    }
+    cityPopularity.record(key, city, profile);
+
+    CityInfo cached = cachedForProfile(key, profile);
+    if (cached != null) {
+      metrics.recordLookup(profile, WeatherMetrics.Lookup.CACHE, start);
+      return cached;
+    }
+
+    ForecastCache.StaleForecast stale = staleForecast(key, profile);
+    if (stale == null) {
+      return fetched(key, city, profile, start);
+    }
+    if (stale.expiredFor().compareTo(staleWhileRevalidate) < 0) {
+      refreshInBackground(key, city, profile);
+      metrics.recordLookup(profile, WeatherMetrics.Lookup.STALE, start);
+      return stale.value();
+    }
+    if (stale.expiredFor().compareTo(staleIfError) < 0) {
+      try {
+        CityInfo ci = fetchOnce(key, city, profile, UpstreamPriority.USER);
+        metrics.recordLookup(profile, WeatherMetrics.Lookup.UPSTREAM, start);
+        return ci;
+      } catch (RuntimeException e) {
+        if (isUpstreamFailure(e)) {
+          metrics.recordLookup(profile, WeatherMetrics.Lookup.STALE, start);
+          return stale.value();
+        }
+        metrics.recordLookup(profile, WeatherMetrics.Lookup.ERROR, start);
+        throw e;
+      }
+    }
+    return fetched(key, city, profile, start);
+  }
+
+  /**
+   * Fetches a forecast the cache could not answer and records the lookup.
+   * A null key fetches from the repository without coalescing or caching.
+   */
+  private CityInfo fetched(String key, String city, FetchProfile profile, long start) {
+    try {
+      CityInfo ci = key == null
+              ? fetchFromRepository(city, profile, UpstreamPriority.USER)
+              : fetchOnce(key, city, profile, UpstreamPriority.USER);
+      metrics.recordLookup(profile, WeatherMetrics.Lookup.UPSTREAM, start);
+      return ci;
+    } catch (RuntimeException e) {
+      metrics.recordLookup(profile, WeatherMetrics.Lookup.ERROR, start);
+      throw e;
+    }
+  }
+
+  /**
+   * Looks up a profile's forecast, falling back to the full forecast for a narrow profile. The
+   * profile entry is only probed, so the lookup counts as a single hit or miss.
+   */
+  static CityInfo cachedForProfile(ForecastCache forecastCache, String key, FetchProfile profile) {
+    if (profile == FetchProfile.FULL) {
+      return forecastCache.get(key);
+    }
+    CityInfo cached = forecastCache.probe(profileKey(key, profile));
+    return cached != null ? cached : forecastCache.get(key);
+  }
+
+  private CityInfo cachedForProfile(String key, FetchProfile profile) {
+    return cachedForProfile(forecastCache, key, profile);
+  }
+
+  private ForecastCache.StaleForecast staleForecast(String key, FetchProfile profile) {
+    ForecastCache.StaleForecast stale = forecastCache.getStale(profileKey(key, profile));
+    if (stale == null && profile != FetchProfile.FULL) {
+      stale = forecastCache.getStale(key);
+    }
+    return stale;
+  }
+
+  /**
+   * Starts a fetch that replaces a stale forecast, unless one is already running for the key.
+   * The fetch runs in the background rate-limiting lane on the refresh executor. Failures, and
+   * refreshes the saturated executor rejects, are dropped; the stale forecast keeps being served
+   * until its grace window ends.
+   */
+  private void refreshInBackground(String key, String city, FetchProfile profile) {
+    if (inFlight.containsKey(profileKey(key, profile))) {
+      return;
+    }
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          fetchOnce(key, city, profile, UpstreamPriority.BACKGROUND);
+        } catch (RuntimeException e) {
+          // The next caller retries once the stale forecast is no longer served
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // Serve the stale forecast; a later caller retries the refresh
+    }
+  }
+
+  /**
+   * Whether an exception means Visual Crossing could not answer, rather than that it rejected the
+   * request. Only these failures are masked by a stale forecast. They include calls refused by an
+   * open circuit breaker or the upstream concurrency limit.
+   */
+  static boolean isUpstreamFailure(RuntimeException e) {
+    return UpstreamGuard.isUpstreamFailure(e);
+  }
+
+  /**
+   * Returns the cached forecast for a city without calling the repository.
+   * A hit counts as a cache hit and towards the city's popularity. A miss records nothing, since
+   * the caller is expected to go on to {@link #forecastByCity(String)}, which records it, so each
+   * request is counted once.
+   *
+   * @param city The city name as supplied by the caller
+   * @return The cached CityInfo, or null if the city is not cached
+   */
+  public CityInfo cachedForecast(String city) {
+    String key = canonicalKey(city);
+    if (key == null) {
+      return null;
+    }
+    CityInfo cached = forecastCache.probe(key);
+    if (cached != null) {
+      cityPopularity.record(key, city);
+    }
+    return cached;
+  }
+
+  /**
+   * Fetches a city from the repository without consulting the cache, then caches the result.
+   * Concurrent fetches for the same city are still coalesced.
+   *
+   * @param city The city name as supplied by the caller
+   * @return The CityInfo returned by the repository
+   */
+  public CityInfo refreshForecast(String city) {
+    return refreshForecast(city, UpstreamPriority.USER);
+  }
+
+  /**
+   * Fetches a city from the repository in the given rate-limiting lane without consulting the
+   * cache, then caches the result. Refresh-ahead and warm-up use the background lane so that they
+   * give way to user requests.
+   *
+   * @param city The city name as supplied by the caller
+   * @param priority The lane the upstream call is metered in
+   * @return The CityInfo returned by the repository
+   */
+  public CityInfo refreshForecast(String city, UpstreamPriority priority) {
+    return refreshForecast(city, FetchProfile.FULL, priority);
+  }
+
+  /**
+   * Fetches the parts of a city's forecast described by a fetch profile in the given
+   * rate-limiting lane without consulting the cache, then caches the result under the profile.
+   *
+   * @param city The city name as supplied by the caller
+   * @param profile The sections and elements to fetch
+   * @param priority The lane the upstream call is metered in
+   * @return The CityInfo returned by the repository
+   */
+  public CityInfo refreshForecast(String city, FetchProfile profile, UpstreamPriority priority) {
+    String key = canonicalKey(city);
+    if (key == null) {
+      return fetchFromRepository(city, profile, priority);
+    }
+    return fetchOnce(key, city, profile, priority);
+  }
+
+  /**
+   * Fetches a city from the repository, letting concurrent callers for the same key and profile
+   * share a single upstream call. The caller that starts the fetch populates the cache; every
+   * other caller waits for it and receives the same result or the same exception.
+   *
+   * @param key The normalized city key
+   * @param city The city name as supplied by the caller
+   * @param profile The sections and elements to fetch
+   * @param priority The lane the upstream call is metered in
+   * @return The CityInfo returned by the repository
+   */
+  private CityInfo fetchOnce(String key, String city, FetchProfile profile, UpstreamPriority priority) {
+    String profileKey = profileKey(key, profile);
+    CompletableFuture<CityInfo> call = new CompletableFuture<>();
+    CompletableFuture<CityInfo> existing = inFlight.putIfAbsent(profileKey, call);
+    if (existing != null) {
+      return await(existing);
+    }
+
+    try {
+      CityInfo ci = fetchFromRepository(city, profile, priority);
+      if (ci != null) {
+        String canonical = cityCanonicalizer.learn(key, ci);
+        forecastCache.put(profileKey(canonical != null ? canonical : key, profile), ci);
+      }
+      call.complete(ci);
+      return ci;
+    } catch (RuntimeException | Error e) {
+      call.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(profileKey, call);
+    }
+  }
+
+  private CityInfo fetchFromRepository(String city, FetchProfile profile, UpstreamPriority priority) {
+    metrics.fetchStarted();
+    long start = System.nanoTime();
+    boolean success = false;
+    try {
+      CityInfo ci;
+      if (priority != UpstreamPriority.USER) {
+        ci = weatherRepo.getByCity(city, profile, priority);
+      } else {
+        ci = profile == FetchProfile.FULL ? weatherRepo.getByCity(city) : weatherRepo.getByCity(city, profile);
+      }
+      success = true;
+      return ci;
+    } finally {
+      metrics.fetchFinished(profile, success, start);
+    }
+  }
+
+  private static CityInfo await(CompletableFuture<CityInfo> call) {
+    try {
+      return call.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Builds the cache key for a city so that differently cased, padded or Unicode-encoded
+   * spellings share an entry.
+   *
+   * @param city The city name as supplied by the caller
+   * @return The normalized key, or null if the name is blank and should not be cached
+   */
+  public static String cacheKey(String city) {
+    return CityCanonicalizer.normalize(city);
+  }
+
+  /**
+   * Builds the cache key for a city and replaces it with the canonical location id if the
+   * spelling has been seen before, so aliases such as "London,UK" share the entry for "London".
+   */
+  private String canonicalKey(String city) {
+    String key = cacheKey(city);
+    if (key == null) {
+      return null;
+    }
+    String canonical = cityCanonicalizer.resolve(key);
+    return canonical != null ? canonical : key;
+  }
 
-    return weatherRepo.getByCity(city);
+  /**
+   * Extends a city key with the fetch profile so that partial forecasts are cached separately.
+   * Full forecasts keep the plain city key.
+   */
+  static String profileKey(String key, FetchProfile profile) {
+    return profile == FetchProfile.FULL ? key : key + "#" + profile.name().toLowerCase(Locale.ROOT);
   }
-}
\ No newline at end of file
+}
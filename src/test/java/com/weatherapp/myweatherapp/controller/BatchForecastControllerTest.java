@@ -0,0 +1,162 @@
+package com.weatherapp.myweatherapp.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.weatherapp.myweatherapp.model.CityForecastResult;
+import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.service.WeatherService;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
+
+@DisplayName("BatchForecastController Tests")
+class BatchForecastControllerTest {
+
+    @Mock
+    private WeatherService weatherService;
+
+    @Mock
+    private InboundLimitFilter inboundLimitFilter;
+
+    @InjectMocks
+    private BatchForecastController batchController;
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/forecast/batch");
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = Executors.newFixedThreadPool(4);
+        ReflectionTestUtils.setField(batchController, "lookupExecutor", executor);
+        ReflectionTestUtils.setField(batchController, "lookupTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(batchController, "maxCities", 3);
+        ReflectionTestUtils.setField(batchController, "parallelism", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should deduplicate cities and serve cached forecasts without fetching")
+    void testForecastBatch_DeduplicatesAndUsesCache() {
+        CityInfo london = mock(CityInfo.class);
+        CityInfo paris = mock(CityInfo.class);
+        when(weatherService.cachedForecast("London")).thenReturn(london);
+        when(weatherService.forecastByCity("Paris")).thenReturn(paris);
+
+        ResponseEntity<Map<String, CityForecastResult>> response =
+                batchController.forecastBatch(List.of("London", "Paris", " london "), request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().size());
+        assertSame(london, response.getBody().get("London").forecast());
+        assertSame(paris, response.getBody().get("Paris").forecast());
+        verify(weatherService, never()).forecastByCity("London");
+        verify(weatherService, times(1)).forecastByCity("Paris");
+    }
+
+    @Test
+    @DisplayName("Should report per-city errors alongside successful lookups")
+    void testForecastBatch_PerCityErrors() {
+        when(weatherService.forecastByCity("London")).thenReturn(mock(CityInfo.class));
+        when(weatherService.forecastByCity("Nowhere"))
+                .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+
+        Map<String, CityForecastResult> results =
+                batchController.forecastBatch(List.of("London", "Nowhere", ""), request).getBody();
+
+        assertEquals(200, results.get("London").status());
+        assertEquals(400, results.get("Nowhere").status());
+        assertNull(results.get("Nowhere").forecast());
+        assertEquals(400, results.get("").status());
+    }
+
+    @Test
+    @DisplayName("Should reject a request without cities")
+    void testForecastByCities_Missing() {
+        ResponseEntity<Map<String, CityForecastResult>> response =
+                batchController.forecastByCities(new LinkedMultiValueMap<>(), request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should look up each cities parameter as one city, keeping commas in names")
+    void testForecastByCities_RepeatedParameters() {
+        when(weatherService.forecastByCity("London,UK")).thenReturn(mock(CityInfo.class));
+        when(weatherService.forecastByCity("Paris")).thenReturn(mock(CityInfo.class));
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("cities", "London,UK");
+        params.add("cities", "Paris");
+
+        Map<String, CityForecastResult> results = batchController.forecastByCities(params, request).getBody();
+
+        assertEquals(List.of("London,UK", "Paris"), List.copyOf(results.keySet()));
+        verify(weatherService).forecastByCity("London,UK");
+        verify(weatherService, never()).forecastByCity("London");
+    }
+
+    @Test
+    @DisplayName("Should report 503 per city and refund the client when the batch executor is saturated")
+    void testForecastBatch_ExecutorSaturated() {
+        ReflectionTestUtils.setField(batchController, "lookupExecutor",
+                (Executor) task -> {
+                    throw new RejectedExecutionException("saturated");
+                });
+
+        Map<String, CityForecastResult> results =
+                batchController.forecastBatch(List.of("London", "Paris"), request).getBody();
+
+        assertEquals(503, results.get("London").status());
+        assertEquals(503, results.get("Paris").status());
+        verify(weatherService, never()).forecastByCity(anyString());
+        verify(inboundLimitFilter).refund(request, 2);
+    }
+
+    @Test
+    @DisplayName("Should charge the client per city and answer 429 without lookups when it is over its rate")
+    void testForecastBatch_RateLimited() {
+        when(inboundLimitFilter.charge(request, 1)).thenReturn(1_500_000_000L);
+
+        ResponseEntity<Map<String, CityForecastResult>> response =
+                batchController.forecastBatch(List.of("London", "Paris"), request);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verifyNoInteractions(weatherService);
+    }
+
+    @Test
+    @DisplayName("Should reject batches above the configured size")
+    void testForecastBatch_TooManyCities() {
+        ResponseEntity<Map<String, CityForecastResult>> response =
+                batchController.forecastBatch(List.of("a", "b", "c", "d"), request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(weatherService);
+    }
+}
@@ -0,0 +1,86 @@
+package com.weatherapp.myweatherapp.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ClientRateLimiter Tests")
+class ClientRateLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(1_000_000 * MS);
+
+    @Test
+    @DisplayName("Should admit a burst, then one request per emission interval")
+    void testTryAcquire_BurstThenRate() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 100, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("a", 1));
+        }
+        assertEquals(100 * MS, limiter.tryAcquire("a", 1));
+        assertEquals(0, limiter.tryAcquire("b", 1));
+
+        now.addAndGet(100 * MS);
+        assertEquals(0, limiter.tryAcquire("a", 1));
+        assertTrue(limiter.tryAcquire("a", 1) > 0);
+    }
+
+    @Test
+    @DisplayName("Should charge costlier requests more tokens")
+    void testTryAcquire_Cost() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 100, now::get);
+
+        assertEquals(0, limiter.tryAcquire("a", 2));
+        assertEquals(100 * MS, limiter.tryAcquire("a", 2));
+        assertEquals(0, limiter.tryAcquire("a", 1));
+    }
+
+    @Test
+    @DisplayName("Should admit a request costing more than the burst only with a full bucket, charging it in full")
+    void testTryAcquire_CostAboveBurst() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 100, now::get);
+
+        assertEquals(0, limiter.tryAcquire("b", 5));
+        assertEquals(300 * MS, limiter.tryAcquire("b", 1));
+
+        assertEquals(0, limiter.tryAcquire("c", 1));
+        assertEquals(100 * MS, limiter.tryAcquire("c", 5));
+    }
+
+    @Test
+    @DisplayName("Should give refunded tokens back, but never beyond a full bucket")
+    void testRefund() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 100, now::get);
+
+        assertEquals(0, limiter.tryAcquire("a", 3));
+        limiter.refund("a", 2);
+        assertEquals(0, limiter.tryAcquire("a", 2));
+        assertTrue(limiter.tryAcquire("a", 1) > 0);
+
+        limiter.refund("a", 10);
+        assertEquals(0, limiter.tryAcquire("a", 3));
+        assertTrue(limiter.tryAcquire("a", 1) > 0);
+    }
+
+    @Test
+    @DisplayName("Should share one bucket among clients beyond the table size until idle clients are forgotten")
+    void testTryAcquire_Overflow() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 1, 1, now::get);
+        assertEquals(0, limiter.tryAcquire("a", 1));
+
+        assertEquals(0, limiter.tryAcquire("b", 1));
+        assertTrue(limiter.tryAcquire("c", 1) > 0);
+        assertEquals(1, limiter.trackedClients());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, limiter.tryAcquire("c", 1));
+        assertEquals(1, limiter.trackedClients());
+        assertTrue(limiter.tryAcquire("c", 1) > 0);
+        assertEquals(0, limiter.tryAcquire("a", 1));
+    }
+}
@@ -0,0 +1,139 @@
+package com.weatherapp.myweatherapp.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@DisplayName("InboundLimitFilter Tests")
+class InboundLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private static MockHttpServletRequest request(String path, String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr("192.0.2.1");
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        return request;
+    }
+
+    private double rejected(String reason) {
+        return registry.get("weather.inbound.rejected").tag("reason", reason).counter().count();
+    }
+
+    @Test
+    @DisplayName("Should answer 429 with Retry-After once a client exceeds its rate")
+    void testDoFilter_ClientRateLimited() throws Exception {
+        InboundLimitFilter filter = new InboundLimitFilter(
+                new ClientRateLimiter(1, 2, 100, System::nanoTime), "X-API-Key", Set.of("client-b"), 0, registry);
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(request("/check-rain/London/Paris", null), first, new MockFilterChain());
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(request("/forecast/London", null), second, new MockFilterChain());
+        MockHttpServletResponse otherClient = new MockHttpServletResponse();
+        filter.doFilter(request("/forecast/London", "client-b"), otherClient, new MockFilterChain());
+
+        assertEquals(200, first.getStatus());
+        assertEquals(429, second.getStatus());
+        assertEquals("1", second.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, otherClient.getStatus());
+        assertEquals(1, rejected("rate_limited"));
+    }
+
+    @Test
+    @DisplayName("Should limit a client by its address when its API key is not a configured one")
+    void testDoFilter_UnknownApiKey() throws Exception {
+        InboundLimitFilter filter = new InboundLimitFilter(
+                new ClientRateLimiter(1, 1, 100, System::nanoTime), "X-API-Key", Set.of("client-b"), 0, registry);
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(request("/forecast/London", "made-up-1"), first, new MockFilterChain());
+        MockHttpServletResponse rotated = new MockHttpServletResponse();
+        filter.doFilter(request("/forecast/London", "made-up-2"), rotated, new MockFilterChain());
+        MockHttpServletResponse configured = new MockHttpServletResponse();
+        filter.doFilter(request("/forecast/London", "client-b"), configured, new MockFilterChain());
+
+        assertEquals(200, first.getStatus());
+        assertEquals(429, rotated.getStatus());
+        assertEquals(200, configured.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should charge a token per city requested")
+    void testCost_PerCity() {
+        MockHttpServletRequest batch = request("/forecast", null);
+        batch.addParameter("cities", "London,UK", "Paris", "Rome");
+
+        assertEquals(3, InboundLimitFilter.cost(batch));
+        assertEquals(1, InboundLimitFilter.cost(request("/forecast", null)));
+        assertEquals(2, InboundLimitFilter.cost(request("/reactive/check-rain/London/Paris", null)));
+        assertEquals(1, InboundLimitFilter.cost(request("/forecast/London", null)));
+    }
+
+    @Test
+    @DisplayName("Should shed requests with 503 beyond the in-flight limit")
+    void testDoFilter_Overloaded() throws Exception {
+        InboundLimitFilter filter = new InboundLimitFilter(null, "X-API-Key", Set.of(), 1, registry);
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> filter.doFilter(request("/forecast/Paris", null), nested,
+                new MockFilterChain());
+
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(request("/forecast/London", null), outer, chain);
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nested.getStatus());
+        assertEquals(1, rejected("overloaded"));
+        assertEquals(0, registry.get("weather.inbound.requests.active").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should not charge a client for a request shed as overloaded")
+    void testDoFilter_OverloadedNotCharged() throws Exception {
+        InboundLimitFilter filter = new InboundLimitFilter(
+                new ClientRateLimiter(1, 1, 100, System::nanoTime), "X-API-Key", Set.of(), 1, registry);
+        MockHttpServletRequest shedRequest = request("/forecast/Paris", null);
+        shedRequest.setRemoteAddr("192.0.2.2");
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> filter.doFilter(shedRequest, shed, new MockFilterChain());
+
+        filter.doFilter(request("/forecast/London", null), new MockHttpServletResponse(), chain);
+        MockHttpServletResponse retried = new MockHttpServletResponse();
+        filter.doFilter(request("/forecast/Paris", null), retried, new MockFilterChain());
+        MockHttpServletRequest retry = request("/forecast/Paris", null);
+        retry.setRemoteAddr("192.0.2.2");
+        MockHttpServletResponse shedClientRetry = new MockHttpServletResponse();
+        filter.doFilter(retry, shedClientRetry, new MockFilterChain());
+
+        assertEquals(503, shed.getStatus());
+        assertEquals(429, retried.getStatus());
+        assertEquals(200, shedClientRetry.getStatus());
+        assertEquals(0, registry.get("weather.inbound.requests.active").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should not limit actuator endpoints")
+    void testDoFilter_ActuatorExempt() throws Exception {
+        InboundLimitFilter filter = new InboundLimitFilter(
+                new ClientRateLimiter(1, 1, 100, System::nanoTime), "X-API-Key", Set.of(), 1, registry);
+        AtomicInteger handled = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request("/actuator/prometheus", null), response, (req, res) -> handled.incrementAndGet());
+            assertEquals(200, response.getStatus());
+        }
+        assertEquals(3, handled.get());
+    }
+}
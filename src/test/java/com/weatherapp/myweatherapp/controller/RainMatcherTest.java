@@ -0,0 +1,62 @@
+package com.weatherapp.myweatherapp.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RainMatcher Tests")
+class RainMatcherTest {
+
+    private static final Set<String> TERMS = Set.of(
+            "rain", "drizzle", "shower", "thunderstorm", "precipitation",
+            "downpour", "rainfall", "raining", "stormy");
+
+    private final RainMatcher matcher = new RainMatcher(TERMS);
+
+    @Test
+    @DisplayName("Should match terms anywhere in the string, ignoring case")
+    void testMatches() {
+        assertTrue(matcher.matches("Rain, Partially cloudy"));
+        assertTrue(matcher.matches("Snow, Freezing DRIZZLE/Freezing Rain"));
+        assertTrue(matcher.matches("Thunderstorm"));
+        assertTrue(matcher.matches("rrain"));
+        assertFalse(matcher.matches("Partially cloudy"));
+        assertFalse(matcher.matches("Snow, Overcast"));
+        assertFalse(matcher.matches("rai n"));
+        assertFalse(matcher.matches(""));
+        assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    @DisplayName("Should agree with lower-casing and contains() on random strings")
+    void testMatches_AgreesWithContains() {
+        Random random = new Random(42);
+        String alphabet = "rainRAINdzlesowhtupcyf ,/";
+        List<String> samples = new ArrayList<>(TERMS);
+        for (int n = 0; n < 5000; n++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = random.nextInt(30); i > 0; i--) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            samples.add(text.toString());
+        }
+
+        for (String sample : samples) {
+            String lower = sample.toLowerCase(Locale.ROOT);
+            boolean expected = TERMS.stream().anyMatch(lower::contains);
+            assertEquals(expected, matcher.matches(sample), sample);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject terms outside a-z")
+    void testConstructor_InvalidTerm() {
+        assertThrows(IllegalArgumentException.class, () -> new RainMatcher(List.of("heavy rain")));
+    }
+}
@@ -0,0 +1,166 @@
+package com.weatherapp.myweatherapp.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import com.weatherapp.myweatherapp.repository.UpstreamUnavailableException;
+import com.weatherapp.myweatherapp.service.WeatherService;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+
+@DisplayName("WeatherController Tests")
+class WeatherControllerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Mock
+    private WeatherService weatherService;
+
+    @InjectMocks
+    private WeatherController weatherController;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = Executors.newFixedThreadPool(4);
+        ReflectionTestUtils.setField(weatherController, "lookupExecutor", executor);
+        ReflectionTestUtils.setField(weatherController, "lookupTimeout", Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    static CityInfo cityInfo(String sunrise, String sunset, String conditions) throws Exception {
+        String json = "{\"currentConditions\":{\"sunrise\":\"" + sunrise + "\",\"sunset\":\"" + sunset
+                + "\",\"conditions\":\"" + conditions + "\"}}";
+        return MAPPER.readValue(json, CityInfo.class);
+    }
+
+    @Nested
+    @DisplayName("Concurrent Lookup Tests")
+    class ConcurrentLookupTests {
+        @Test
+        @DisplayName("Should look up both cities concurrently")
+        void testCompareDaylight_LookupsOverlap() throws Exception {
+            CityInfo london = cityInfo("05:00:00", "21:00:00", "Clear");
+            CityInfo paris = cityInfo("06:00:00", "20:00:00", "Clear");
+            CountDownLatch bothStarted = new CountDownLatch(2);
+            when(weatherService.forecastByCity(anyString(), eq(FetchProfile.DAYLIGHT))).thenAnswer(invocation -> {
+                bothStarted.countDown();
+                assertTrue(bothStarted.await(5, TimeUnit.SECONDS), "lookups did not overlap");
+                return "London".equals(invocation.getArgument(0)) ? london : paris;
+            });
+
+            ResponseEntity<String> response = weatherController.compareDaylightHours("London", "Paris");
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("London has the longest day", response.getBody());
+        }
+
+        @Test
+        @DisplayName("Should map an upstream error from either city to its status")
+        void testCheckRain_SecondCityError() throws Exception {
+            when(weatherService.forecastByCity("London", FetchProfile.RAIN)).thenReturn(cityInfo("05:00:00", "21:00:00", "Rain"));
+            when(weatherService.forecastByCity("Nowhere", FetchProfile.RAIN))
+                    .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+
+            ResponseEntity<String> response = weatherController.checkRain("London", "Nowhere");
+
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        }
+
+        @Test
+        @DisplayName("Should return service unavailable when the upstream call is refused")
+        void testCompareDaylight_UpstreamUnavailable() throws Exception {
+            when(weatherService.forecastByCity("London", FetchProfile.DAYLIGHT))
+                    .thenReturn(cityInfo("05:00:00", "21:00:00", "Clear"));
+            when(weatherService.forecastByCity("Paris", FetchProfile.DAYLIGHT))
+                    .thenThrow(new UpstreamUnavailableException("Visual Crossing circuit breaker is open"));
+
+            ResponseEntity<String> response = weatherController.compareDaylightHours("London", "Paris");
+
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        }
+
+        @Test
+        @DisplayName("Should return gateway timeout when the combined deadline passes")
+        void testCompareDaylight_Timeout() throws Exception {
+            ReflectionTestUtils.setField(weatherController, "lookupTimeout", Duration.ofMillis(50));
+            CountDownLatch never = new CountDownLatch(1);
+            when(weatherService.forecastByCity(anyString(), any())).thenAnswer(invocation -> {
+                never.await(5, TimeUnit.SECONDS);
+                return null;
+            });
+
+            ResponseEntity<String> response = weatherController.compareDaylightHours("London", "Paris");
+
+            assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+            never.countDown();
+        }
+    }
+
+    @Nested
+    @DisplayName("Daylight Tests")
+    class DaylightTests {
+
+        @Test
+        @DisplayName("Should count whole minutes, wrapping a sunset past midnight")
+        void testDaylightMinutes() throws Exception {
+            assertEquals(16 * 60 + 38, WeatherController.daylightMinutes(cityInfo("04:43:11", "21:21:32", "Clear"), "London"));
+            assertEquals(3 * 60, WeatherController.daylightMinutes(cityInfo("22:00:00", "01:00:00", "Clear"), "Tromso"));
+            assertEquals(0, WeatherController.daylightMinutes(60, 30));
+        }
+
+        @Test
+        @DisplayName("Should reject forecasts without sunrise or sunset")
+        void testDaylightMinutes_Missing() throws Exception {
+            CityInfo noSunset = MAPPER.readValue("{\"currentConditions\":{\"sunrise\":\"05:00:00\"}}", CityInfo.class);
+
+            assertThrows(IllegalStateException.class, () -> WeatherController.daylightMinutes(noSunset, "London"));
+            assertThrows(IllegalStateException.class, () -> WeatherController.daylightMinutes(new CityInfo(), "London"));
+        }
+
+        @Test
+        @DisplayName("Should agree with ChronoUnit.MINUTES on random sunrise and sunset times")
+        void testDaylightMinutes_AgreesWithChronoUnit() {
+            Random random = new Random(42);
+            for (int n = 0; n < 100000; n++) {
+                int sunrise = random.nextInt(86400);
+                int sunset = random.nextInt(8) == 0 ? sunrise + random.nextInt(121) - 60 : random.nextInt(86400);
+                sunset = Math.floorMod(sunset, 86400);
+                long expected = ChronoUnit.MINUTES.between(LocalTime.ofSecondOfDay(sunrise), LocalTime.ofSecondOfDay(sunset));
+                if (expected < 0) {
+                    expected += 24 * 60;
+                }
+
+                assertEquals(expected, WeatherController.daylightMinutes(sunrise, sunset), sunrise + " -> " + sunset);
+                assertEquals(expected, new WeatherController.DaylightInfo(sunrise, sunset).getDaylightMinutes());
+            }
+        }
+    }
+}
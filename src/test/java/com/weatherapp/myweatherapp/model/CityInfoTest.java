@@ -0,0 +1,102 @@
+package com.weatherapp.myweatherapp.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("CityInfo Tests")
+class CityInfoTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String TIMELINE = "{\"address\":\"London\",\"description\":\"Cooler\","
+            + "\"currentConditions\":{\"temp\":17.2,\"feelslike\":\"16.9\",\"humidity\":68,"
+            + "\"sunrise\":\"04:43:11\",\"sunset\":\"21:21:32\",\"conditions\":\"Rain\"},"
+            + "\"days\":[{\"datetime\":\"2024-06-01\",\"temp\":16.5,\"tempmax\":21.4,\"conditions\":\"Rain\"}]}";
+
+    @Test
+    @DisplayName("Should parse measurements and times into primitives")
+    void testDeserialize_Primitives() throws Exception {
+        CityInfo cityInfo = MAPPER.readValue(TIMELINE, CityInfo.class);
+
+        CityInfo.CurrentConditions current = cityInfo.getCurrentConditions();
+        assertEquals(17.2, current.currentTemperature());
+        assertEquals(16.9, current.feelslike());
+        assertEquals(68.0, current.humidity());
+        assertEquals(4 * 3600 + 43 * 60 + 11, current.sunrise());
+        assertEquals(21 * 3600 + 21 * 60 + 32, current.sunset());
+        assertEquals(21.4, cityInfo.getDays().get(0).maxTemperature());
+    }
+
+    @Test
+    @DisplayName("Should use sentinels for values the API did not report")
+    void testDeserialize_MissingValues() throws Exception {
+        CityInfo cityInfo = MAPPER.readValue(
+                "{\"currentConditions\":{\"temp\":null,\"sunset\":\"\"},\"days\":[{\"datetime\":\"2024-06-01\"}]}",
+                CityInfo.class);
+
+        CityInfo.CurrentConditions current = cityInfo.getCurrentConditions();
+        assertTrue(CityInfo.isMissing(current.currentTemperature()));
+        assertTrue(CityInfo.isMissing(current.humidity()));
+        assertEquals(CityInfo.MISSING_TIME, current.sunrise());
+        assertEquals(CityInfo.MISSING_TIME, current.sunset());
+        assertTrue(CityInfo.isMissing(cityInfo.getDays().get(0).minTemperature()));
+    }
+
+    @Test
+    @DisplayName("Should treat times not in HH:mm:ss as missing rather than failing the forecast")
+    void testDeserialize_OddTimes() throws Exception {
+        CityInfo cityInfo = MAPPER.readValue(
+                "{\"address\":\"London\",\"currentConditions\":{\"sunrise\":\"4:43\",\"sunset\":\"21:21:32.5\"}}",
+                CityInfo.class);
+
+        assertEquals("London", cityInfo.getAddress());
+        assertEquals(CityInfo.MISSING_TIME, cityInfo.getCurrentConditions().sunrise());
+        assertEquals(CityInfo.MISSING_TIME, cityInfo.getCurrentConditions().sunset());
+    }
+
+    @Test
+    @DisplayName("Should write values back in the original string form")
+    void testSerialize_PreservesJsonShape() throws Exception {
+        CityInfo cityInfo = MAPPER.readValue(TIMELINE, CityInfo.class);
+
+        JsonNode json = MAPPER.readTree(MAPPER.writeValueAsString(cityInfo));
+
+        JsonNode current = json.get("currentConditions");
+        assertEquals("17.2", current.get("temp").textValue());
+        assertEquals("68", current.get("humidity").textValue());
+        assertEquals("04:43:11", current.get("sunrise").textValue());
+        assertEquals("21:21:32", current.get("sunset").textValue());
+        assertEquals("Rain", current.get("conditions").textValue());
+        assertEquals("London", json.get("address").textValue());
+        assertTrue(json.get("days").get(0).get("tempmin").isNull());
+    }
+
+    @Test
+    @DisplayName("Should write measurements without a trailing fraction or exponent")
+    void testSerialize_PlainMeasurements() throws Exception {
+        CityInfo.CurrentConditions current = new CityInfo.CurrentConditions(
+                0.00001, CityInfo.MISSING_TIME, CityInfo.MISSING_TIME, -3.0, 1.0e21, null);
+
+        JsonNode json = MAPPER.readTree(MAPPER.writeValueAsString(current));
+
+        assertEquals("0.00001", json.get("temp").textValue());
+        assertEquals("-3", json.get("feelslike").textValue());
+        assertEquals("1000000000000000000000", json.get("humidity").textValue());
+    }
+
+    @Test
+    @DisplayName("Should skip unknown and nested fields when reading conditions")
+    void testDeserialize_SkipsUnknownFields() throws Exception {
+        CityInfo cityInfo = MAPPER.readValue("{\"days\":[{\"datetime\":\"2024-06-01\",\"hours\":[{\"temp\":1}],"
+                + "\"conditions\":{\"nested\":true},\"tempmax\":\"21.4\"}]}", CityInfo.class);
+
+        CityInfo.Days day = cityInfo.getDays().get(0);
+        assertEquals("2024-06-01", day.date());
+        assertNull(day.conditions());
+        assertEquals(21.4, day.maxTemperature());
+    }
+}
@@ -0,0 +1,76 @@
+package com.weatherapp.myweatherapp.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("WeatherValueJson Tests")
+class WeatherValueJsonTest {
+
+    private static final DateTimeFormatter STRICT =
+            DateTimeFormatter.ofPattern("HH:mm:ss").withResolverStyle(ResolverStyle.STRICT);
+
+    @Test
+    @DisplayName("Should parse only HH:mm:ss and treat anything else as missing")
+    void testParseTimeOfDay() {
+        assertEquals(0, WeatherValueJson.parseTimeOfDay("00:00:00"));
+        assertEquals(4 * 3600 + 43 * 60 + 11, WeatherValueJson.parseTimeOfDay("04:43:11"));
+        assertEquals(86399, WeatherValueJson.parseTimeOfDay("23:59:59"));
+        assertEquals(6 * 3600 + 30 * 60, WeatherValueJson.parseTimeOfDay(" 06:30:00 "));
+        assertEquals(CityInfo.MISSING_TIME, WeatherValueJson.parseTimeOfDay("  "));
+        assertEquals(CityInfo.MISSING_TIME, WeatherValueJson.parseTimeOfDay("06:30"));
+        assertEquals(CityInfo.MISSING_TIME, WeatherValueJson.parseTimeOfDay("06:30:00.5"));
+        assertEquals(CityInfo.MISSING_TIME, WeatherValueJson.parseTimeOfDay("24:00:00"));
+        assertEquals(CityInfo.MISSING_TIME, WeatherValueJson.parseTimeOfDay("12:60:00"));
+        assertEquals(CityInfo.MISSING_TIME, WeatherValueJson.parseTimeOfDay("1a:00:00"));
+    }
+
+    @Test
+    @DisplayName("Should parse from a slice of a character buffer")
+    void testParseTimeOfDay_CharBuffer() {
+        char[] buffer = "\"sunrise\":\"04:43:11\",\"sunset\":\"9:05\"".toCharArray();
+
+        assertEquals(4 * 3600 + 43 * 60 + 11, WeatherValueJson.parseTimeOfDay(buffer, 11, 8));
+        assertEquals(CityInfo.MISSING_TIME, WeatherValueJson.parseTimeOfDay(buffer, 32, 4));
+    }
+
+    @Test
+    @DisplayName("Should agree with the strict HH:mm:ss formatter on random times")
+    void testParseTimeOfDay_AgreesWithLocalTime() {
+        Random random = new Random(42);
+        List<String> samples = new ArrayList<>();
+        for (int second = 0; second < 86400; second += 7) {
+            samples.add(LocalTime.ofSecondOfDay(second).toString() + (second % 60 == 0 ? ":00" : ""));
+        }
+        String alphabet = "0123456789:0123456789 .";
+        for (int n = 0; n < 20000; n++) {
+            char[] text = new char[random.nextInt(4) == 0 ? 5 : 8];
+            for (int i = 0; i < text.length; i++) {
+                boolean separator = i == 2 || i == 5;
+                text[i] = separator && random.nextInt(8) > 0 ? ':' : alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            samples.add(new String(text));
+        }
+
+        for (String sample : samples) {
+            int expected;
+            try {
+                expected = sample.isBlank() ? CityInfo.MISSING_TIME
+                        : LocalTime.parse(sample.trim(), STRICT).toSecondOfDay();
+            } catch (DateTimeParseException e) {
+                expected = CityInfo.MISSING_TIME;
+            }
+            char[] buffer = ("[" + sample + "]").toCharArray();
+            assertEquals(expected, WeatherValueJson.parseTimeOfDay(sample), sample);
+            assertEquals(expected, WeatherValueJson.parseTimeOfDay(buffer, 1, sample.length()), sample);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.weatherapp.myweatherapp.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("CircuitBreaker Tests")
+class CircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(50).toNanos();
+    private static final long SLOW = Duration.ofSeconds(5).toNanos();
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 4, 50, 80, Duration.ofSeconds(3),
+            Duration.ofSeconds(30), 2, now::get);
+
+    private void call(long duration, boolean failed) {
+        CircuitBreaker.Permit permit = breaker.tryAcquire();
+        assertNotNull(permit);
+        breaker.record(permit, duration, failed);
+    }
+
+    @Test
+    @DisplayName("Should open once the failure rate reaches the threshold after the minimum calls")
+    void testOpensOnFailureRate() {
+        call(FAST, true);
+        call(FAST, true);
+        call(FAST, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        call(FAST, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertNull(breaker.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Should open when most calls are slow even if they succeed")
+    void testOpensOnSlowCalls() {
+        call(FAST, false);
+        for (int i = 0; i < 4; i++) {
+            call(SLOW, false);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    @DisplayName("Should compute rates over the last window of calls only")
+    void testWindowEviction() {
+        call(FAST, false);
+        call(FAST, false);
+        for (int i = 0; i < 4; i++) {
+            call(FAST, false);
+            call(FAST, true);
+        }
+        // 4 failures in 10 calls
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        call(FAST, true);
+
+        // The oldest success has left the window, leaving 5 failures in 10 calls
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    @DisplayName("Should let a limited number of probes through after the open duration and close if they succeed")
+    void testHalfOpenCloses() {
+        for (int i = 0; i < 4; i++) {
+            call(FAST, true);
+        }
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        CircuitBreaker.Permit first = breaker.tryAcquire();
+        CircuitBreaker.Permit second = breaker.tryAcquire();
+        assertNull(breaker.tryAcquire());
+        breaker.record(first, FAST, false);
+        breaker.record(second, FAST, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        call(FAST, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    @DisplayName("Should open again when probes fail")
+    void testHalfOpenReopens() {
+        for (int i = 0; i < 4; i++) {
+            call(FAST, true);
+        }
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        call(FAST, false);
+        call(FAST, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertNull(breaker.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Should not count calls permitted before the breaker opened as probes")
+    void testHalfOpenIgnoresStaleCalls() {
+        CircuitBreaker.Permit stale = breaker.tryAcquire();
+        for (int i = 0; i < 4; i++) {
+            call(FAST, true);
+        }
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        CircuitBreaker.Permit probe = breaker.tryAcquire();
+
+        breaker.record(stale, SLOW, true);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.record(probe, FAST, false);
+        call(FAST, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+}
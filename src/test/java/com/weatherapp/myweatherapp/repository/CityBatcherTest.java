@@ -0,0 +1,115 @@
+package com.weatherapp.myweatherapp.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.weatherapp.myweatherapp.model.CityInfo;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+@DisplayName("CityBatcher Tests")
+class CityBatcherTest {
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private CityBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    private Map<String, CityInfo> fetch(List<String> cities) {
+        batches.add(cities);
+        Map<String, CityInfo> forecasts = new HashMap<>();
+        for (String city : cities) {
+            if (city.equals("Nowhere")) {
+                throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+            }
+            if (!city.equals("Atlantis")) {
+                forecasts.put(city, new CityInfo());
+            }
+        }
+        return forecasts;
+    }
+
+    @Test
+    @DisplayName("Should group lookups within the wait window into one upstream call")
+    void testSubmit_GroupsWithinWindow() throws Exception {
+        batcher = new CityBatcher(this::fetch, 10, Duration.ofMillis(100), 1);
+
+        CompletableFuture<CityInfo> london = batcher.submit("London");
+        CompletableFuture<CityInfo> paris = batcher.submit("Paris");
+        CompletableFuture<CityInfo> londonAgain = batcher.submit("London");
+
+        assertNotNull(london.get(5, TimeUnit.SECONDS));
+        assertNotNull(paris.get(5, TimeUnit.SECONDS));
+        assertSame(london, londonAgain);
+        assertEquals(List.of(List.of("London", "Paris")), batches);
+    }
+
+    @Test
+    @DisplayName("Should send a batch as soon as it is full")
+    void testSubmit_FlushesWhenFull() throws Exception {
+        batcher = new CityBatcher(this::fetch, 2, Duration.ofMinutes(1), 1);
+
+        CompletableFuture<CityInfo> london = batcher.submit("London");
+        CompletableFuture<CityInfo> paris = batcher.submit("Paris");
+
+        assertNotNull(london.get(5, TimeUnit.SECONDS));
+        assertNotNull(paris.get(5, TimeUnit.SECONDS));
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    @DisplayName("Should retry cities individually when a batch is rejected")
+    void testSubmit_BadLocationOnlyFailsItsCaller() throws Exception {
+        batcher = new CityBatcher(this::fetch, 2, Duration.ofMinutes(1), 1);
+
+        CompletableFuture<CityInfo> london = batcher.submit("London");
+        CompletableFuture<CityInfo> nowhere = batcher.submit("Nowhere");
+
+        assertNotNull(london.get(5, TimeUnit.SECONDS));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> nowhere.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(HttpClientErrorException.class, error.getCause());
+        assertEquals(3, batches.size());
+    }
+
+    @Test
+    @DisplayName("Should fail a city missing from the response with 404 rather than an empty forecast")
+    void testSubmit_MissingCityFails() throws Exception {
+        batcher = new CityBatcher(this::fetch, 2, Duration.ofMinutes(1), 1);
+
+        CompletableFuture<CityInfo> london = batcher.submit("London");
+        CompletableFuture<CityInfo> atlantis = batcher.submit("Atlantis");
+
+        assertNotNull(london.get(5, TimeUnit.SECONDS));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> atlantis.get(5, TimeUnit.SECONDS));
+        HttpClientErrorException notFound = assertInstanceOf(HttpClientErrorException.class, error.getCause());
+        assertEquals(HttpStatus.NOT_FOUND, notFound.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should fail pending lookups on shutdown instead of leaving them waiting")
+    void testShutdown_FailsPendingLookups() {
+        batcher = new CityBatcher(this::fetch, 10, Duration.ofMinutes(1), 1);
+        CompletableFuture<CityInfo> london = batcher.submit("London");
+
+        batcher.shutdown();
+
+        CompletionException error = assertThrows(CompletionException.class, london::join);
+        assertInstanceOf(UpstreamUnavailableException.class, error.getCause());
+        assertThrows(CompletionException.class, () -> batcher.submit("Paris").join());
+        assertTrue(batches.isEmpty());
+    }
+}
@@ -0,0 +1,107 @@
+package com.weatherapp.myweatherapp.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ConcurrencyLimiter Tests")
+class ConcurrencyLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Should raise the limit while calls are fast and the limit is in use")
+    void testRelease_IncreasesUnderLoad() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 10, 0.5, 2.0);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.acquire(0));
+            assertTrue(limiter.acquire(0));
+            limiter.release(0, 10 * MS, false);
+            limiter.release(0, 10 * MS, false);
+        }
+
+        assertTrue(limiter.limit() > 2);
+        assertEquals(limiter.limit() - 2, limiter.increases());
+        assertEquals(0, limiter.decreases());
+    }
+
+    @Test
+    @DisplayName("Should keep the limit while most of it is unused")
+    void testRelease_IdleKeepsLimit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 1, 10, 0.5, 2.0);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limiter.acquire(0));
+            limiter.release(0, 10 * MS, false);
+        }
+
+        assertEquals(4, limiter.limit());
+    }
+
+    @Test
+    @DisplayName("Should back off once per burst of slow calls")
+    void testRelease_SlowBurstBacksOffOnce() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 1, 20, 0.5, 2.0);
+        assertTrue(limiter.acquire(0));
+        limiter.release(0, 10 * MS, false);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.acquire(0));
+        }
+        for (int i = 0; i < 4; i++) {
+            limiter.release(100 * MS, 200 * MS, false);
+        }
+        assertEquals(5, limiter.limit());
+
+        // Started after the cut, so it reflects the reduced load
+        assertTrue(limiter.acquire(0));
+        limiter.release(300 * MS, 400 * MS, false);
+        assertEquals(2, limiter.limit());
+        assertEquals(2, limiter.decreases());
+    }
+
+    @Test
+    @DisplayName("Should back off on failures no further than the minimum")
+    void testRelease_FailuresStopAtMinimum() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 3, 10, 0.5, 2.0);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.acquire(0));
+            limiter.release(i * 10 * MS, i * 10 * MS + MS, true);
+        }
+
+        assertEquals(3, limiter.limit());
+    }
+
+    @Test
+    @DisplayName("Should refuse a caller whose deadline passes and admit one when a slot frees")
+    void testAcquire_WaitsUntilDeadline() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1, 0.5, 2.0);
+        assertTrue(limiter.acquire(0));
+
+        assertFalse(limiter.acquire(0));
+        assertFalse(limiter.acquire(MS));
+
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire(TimeUnit.SECONDS.toNanos(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.queued() == 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1, limiter.queued());
+
+        limiter.cancel();
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(0, limiter.queued());
+    }
+}
@@ -0,0 +1,80 @@
+package com.weatherapp.myweatherapp.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapp.myweatherapp.model.CityInfo;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("TimelineJsonReader Tests")
+class TimelineJsonReaderTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private final TimelineJsonReader reader = new TimelineJsonReader(MAPPER);
+
+    private static final String TIMELINE = "{\"queryCost\":1,\"address\":\"London\",\"resolvedAddress\":\"London, England, United Kingdom\","
+            + "\"description\":\"Cooler\","
+            + "\"alerts\":[{\"event\":\"Wind\",\"tags\":[\"a\",{\"b\":[1,2]}]}],"
+            + "\"days\":[{\"datetime\":\"2024-06-01\",\"tempmax\":21.4,\"tempmin\":\"12\",\"temp\":16.5,"
+            + "\"hours\":[{\"datetime\":\"00:00:00\",\"temp\":12.1,\"stations\":[\"EGLL\"]}],"
+            + "\"conditions\":\"Rain\",\"description\":\"Wet\"}],"
+            + "\"stations\":{\"EGLL\":{\"distance\":21462.0}},"
+            + "\"currentConditions\":{\"temp\":17.2,\"feelslike\":16.9,\"humidity\":68,"
+            + "\"sunrise\":\"04:43:11\",\"sunset\":\"21:21:32\",\"conditions\":\"Rain\",\"stations\":[\"EGLL\"]}}";
+
+    private CityInfo read(String json) throws IOException {
+        return reader.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("Should produce the same CityInfo as Jackson databind")
+    void testRead_MatchesDatabind() throws Exception {
+        CityInfo streamed = read(TIMELINE);
+        CityInfo bound = MAPPER.readValue(TIMELINE, CityInfo.class);
+
+        assertEquals(MAPPER.writeValueAsString(bound), MAPPER.writeValueAsString(streamed));
+        assertEquals("London", streamed.getAddress());
+        assertEquals("London, England, United Kingdom", streamed.getResolvedAddress());
+        assertEquals(12.0, streamed.getDays().get(0).minTemperature());
+        assertEquals(4 * 3600 + 43 * 60 + 11, streamed.getCurrentConditions().sunrise());
+    }
+
+    @Test
+    @DisplayName("Should use sentinels for missing sections and values")
+    void testRead_MissingValues() throws Exception {
+        CityInfo streamed = read("{\"address\":\"London\",\"currentConditions\":{\"temp\":null}}");
+
+        assertNull(streamed.getDays());
+        assertTrue(CityInfo.isMissing(streamed.getCurrentConditions().currentTemperature()));
+        assertEquals(CityInfo.MISSING_TIME, streamed.getCurrentConditions().sunset());
+    }
+
+    @Test
+    @DisplayName("Should skip structured values in text fields and entries of days that are not objects")
+    void testRead_OddShapes() throws Exception {
+        String json = "{\"address\":{\"name\":\"London\"},\"description\":\"Cooler\","
+                + "\"days\":[null,{\"datetime\":\"2024-06-01\"},[1]]}";
+
+        CityInfo streamed = read(json);
+        CityInfo bound = MAPPER.readValue(json, CityInfo.class);
+
+        assertNull(streamed.getAddress());
+        assertEquals("Cooler", streamed.getDescription());
+        assertEquals(1, streamed.getDays().size());
+        assertEquals(MAPPER.writeValueAsString(bound), MAPPER.writeValueAsString(streamed));
+    }
+
+    @Test
+    @DisplayName("Should treat a malformed time as missing but reject a malformed measurement")
+    void testRead_MalformedValues() throws Exception {
+        assertEquals(CityInfo.MISSING_TIME,
+                read("{\"currentConditions\":{\"sunrise\":\"not a time\"}}").getCurrentConditions().sunrise());
+        assertThrows(JsonProcessingException.class,
+                () -> read("{\"currentConditions\":{\"temp\":\"warm\"}}"));
+    }
+}
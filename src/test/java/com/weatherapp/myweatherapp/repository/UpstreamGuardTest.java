@@ -0,0 +1,193 @@
+package com.weatherapp.myweatherapp.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+@DisplayName("UpstreamGuard Tests")
+class UpstreamGuardTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CircuitBreaker breaker = new CircuitBreaker(4, 2, 50, 100, Duration.ofSeconds(3),
+            Duration.ofMinutes(1), 1, System::nanoTime);
+
+    private UpstreamGuard guard(ConcurrencyLimiter limiter, Duration maxWait) {
+        return new UpstreamGuard(breaker, limiter, maxWait, new UpstreamRateLimiter(0, 0, 0, System::nanoTime),
+                Duration.ZERO, Duration.ofSeconds(1), registry);
+    }
+
+    private static ConcurrencyLimiter limiter(int limit) {
+        return new ConcurrencyLimiter(limit, limit, limit, 0.9, 2.0);
+    }
+
+    private double rejected(String reason) {
+        return registry.get("weather.upstream.rejected").tag("reason", reason).counter().count();
+    }
+
+    @Test
+    @DisplayName("Should refuse calls without making them once upstream failures open the circuit")
+    void testCall_OpenCircuit() {
+        UpstreamGuard guard = guard(limiter(5), Duration.ZERO);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(HttpServerErrorException.class, () -> guard.call(UpstreamPriority.USER, 1, () -> {
+                calls.incrementAndGet();
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }));
+        }
+        assertThrows(UpstreamUnavailableException.class,
+                () -> guard.call(UpstreamPriority.USER, 1, calls::incrementAndGet));
+
+        assertEquals(2, calls.get());
+        assertEquals(1, rejected("circuit_open"));
+        assertEquals(5, registry.get("weather.upstream.concurrency.limit").gauge().value());
+        assertEquals(1, registry.get("weather.upstream.circuit.state").tag("state", "open").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should not count rejected requests against the circuit")
+    void testCall_ClientErrorsDoNotOpen() {
+        UpstreamGuard guard = guard(limiter(5), Duration.ZERO);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpClientErrorException.class, () -> guard.call(UpstreamPriority.USER, 1, () -> {
+                throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+            }));
+        }
+
+        assertEquals("ok", guard.call(UpstreamPriority.USER, 1, () -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    @DisplayName("Should refuse calls beyond the concurrency limit")
+    void testCall_LimitExceeded() throws Exception {
+        UpstreamGuard guard = guard(limiter(1), Duration.ofMillis(10));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> guard.call(UpstreamPriority.USER, 1, () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "slow";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(UpstreamUnavailableException.class, () -> guard.call(UpstreamPriority.USER, 1, () -> "fast"));
+        assertEquals(1, rejected("limit_exceeded"));
+
+        release.countDown();
+        assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+        assertEquals("fast", guard.call(UpstreamPriority.USER, 1, () -> "fast"));
+    }
+
+    @Test
+    @DisplayName("Should hold calls back for the Retry-After delay of a 429")
+    void testCall_TooManyRequestsPauses() {
+        UpstreamGuard guard = guard(limiter(5), Duration.ZERO);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "60");
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(HttpClientErrorException.class, () -> guard.call(UpstreamPriority.USER, 1, () -> {
+            calls.incrementAndGet();
+            throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers,
+                    new byte[0], null);
+        }));
+        assertThrows(UpstreamUnavailableException.class,
+                () -> guard.call(UpstreamPriority.USER, 1, calls::incrementAndGet));
+
+        assertEquals(1, calls.get());
+        assertEquals(1, rejected("rate_limited"));
+    }
+
+    @Test
+    @DisplayName("Should read Retry-After as seconds or an HTTP date")
+    void testRetryAfterNanos() {
+        UpstreamGuard guard = guard(limiter(5), Duration.ZERO);
+        HttpHeaders seconds = new HttpHeaders();
+        seconds.set(HttpHeaders.RETRY_AFTER, "120");
+        HttpHeaders date = new HttpHeaders();
+        date.set(HttpHeaders.RETRY_AFTER, DateTimeFormatter.RFC_1123_DATE_TIME
+                .format(ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(10)));
+        HttpHeaders invalid = new HttpHeaders();
+        invalid.set(HttpHeaders.RETRY_AFTER, "soon");
+
+        assertEquals(TimeUnit.SECONDS.toNanos(120), guard.retryAfterNanos(seconds));
+        long untilDate = guard.retryAfterNanos(date);
+        assertTrue(untilDate > TimeUnit.MINUTES.toNanos(9) && untilDate <= TimeUnit.MINUTES.toNanos(10));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), guard.retryAfterNanos(invalid));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), guard.retryAfterNanos(new HttpHeaders()));
+    }
+
+    @Test
+    @DisplayName("Should meter reactive calls against the quota and refuse them once it is spent")
+    void testCallReactive_MetersQuota() {
+        UpstreamGuard guard = new UpstreamGuard(breaker, limiter(5), Duration.ZERO,
+                new UpstreamRateLimiter(0, 15, 0, System::nanoTime), Duration.ZERO, Duration.ofSeconds(1), registry);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(1, guard.callReactive(UpstreamPriority.USER, 15,
+                () -> Mono.fromSupplier(calls::incrementAndGet)).block());
+        assertThrows(UpstreamUnavailableException.class, () -> guard.callReactive(UpstreamPriority.USER, 1,
+                () -> Mono.fromSupplier(calls::incrementAndGet)).block());
+
+        assertEquals(1, calls.get());
+        assertEquals(1, rejected("rate_limited"));
+    }
+
+    @Test
+    @DisplayName("Should open the circuit on reactive upstream failures and refuse without subscribing")
+    void testCallReactive_OpenCircuit() {
+        UpstreamGuard guard = guard(limiter(5), Duration.ZERO);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(WebClientResponseException.class, () -> guard.callReactive(UpstreamPriority.USER, 1,
+                    () -> Mono.defer(() -> {
+                        calls.incrementAndGet();
+                        return Mono.error(WebClientResponseException.create(503, "Service Unavailable", null, null, null));
+                    })).block());
+        }
+        assertThrows(UpstreamUnavailableException.class, () -> guard.callReactive(UpstreamPriority.USER, 1,
+                () -> Mono.fromSupplier(calls::incrementAndGet)).block());
+
+        assertEquals(2, calls.get());
+        assertEquals(1, rejected("circuit_open"));
+    }
+
+    @Test
+    @DisplayName("Should refuse a reactive call without waiting when no slot is free, and free it on cancel")
+    void testCallReactive_LimitExceeded() {
+        UpstreamGuard guard = guard(limiter(1), Duration.ofSeconds(5));
+        Disposable running = guard.callReactive(UpstreamPriority.USER, 1, Mono::never).subscribe();
+
+        assertThrows(UpstreamUnavailableException.class,
+                () -> guard.callReactive(UpstreamPriority.USER, 1, () -> Mono.just(1)).block());
+        assertEquals(1, rejected("limit_exceeded"));
+
+        running.dispose();
+        assertEquals(1, guard.callReactive(UpstreamPriority.USER, 1, () -> Mono.just(1)).block());
+    }
+}
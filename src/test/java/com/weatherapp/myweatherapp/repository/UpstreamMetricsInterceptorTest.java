@@ -0,0 +1,70 @@
+package com.weatherapp.myweatherapp.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+@DisplayName("UpstreamMetricsInterceptor Tests")
+class UpstreamMetricsInterceptorTest {
+
+    private static final String BODY = "{\"address\":\"London\"}";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RestTemplate restTemplate = new RestTemplate();
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate.getInterceptors().add(new UpstreamMetricsInterceptor(registry));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    private DistributionSummary responseSize(String endpoint) {
+        return registry.get("weather.upstream.response.size").tag("endpoint", endpoint).summary();
+    }
+
+    private double activeRequests() {
+        return registry.get("weather.upstream.requests.active").gauge().value();
+    }
+
+    @Test
+    @DisplayName("Should record the bytes read from each response by endpoint")
+    void testIntercept_RecordsResponseSize() {
+        server.expect(requestTo("http://upstream/timeline/London?key=k"))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://upstream/timelinemulti?locations=London%7CParis&key=k"))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        restTemplate.getForObject("http://upstream/timeline/{city}?key={key}", String.class, "London", "k");
+        restTemplate.getForObject("http://upstream/timelinemulti?locations={locations}&key={key}", String.class,
+                "London|Paris", "k");
+
+        assertEquals(1, responseSize("timeline").count());
+        assertEquals(BODY.length(), responseSize("timeline").totalAmount());
+        assertEquals(1, responseSize("timelinemulti").count());
+        assertEquals(2, responseSize("timelinemulti").totalAmount());
+        assertEquals(0, activeRequests());
+    }
+
+    @Test
+    @DisplayName("Should stop counting a failed call as active")
+    void testIntercept_ErrorResponse() {
+        server.expect(requestTo("http://upstream/timeline/London?key=k")).andRespond(withServerError());
+
+        assertThrows(HttpServerErrorException.class,
+                () -> restTemplate.getForObject("http://upstream/timeline/{city}?key={key}", String.class, "London", "k"));
+
+        assertEquals(0, activeRequests());
+    }
+}
@@ -0,0 +1,72 @@
+package com.weatherapp.myweatherapp.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("UpstreamRateLimiter Tests")
+class UpstreamRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    @DisplayName("Should keep the user reserve out of reach of background calls")
+    void testReserve_BackgroundLeavesReserve() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(10, 0, 0.2, now::get);
+
+        assertEquals(0, limiter.reserve(4, UpstreamPriority.BACKGROUND, 0));
+        assertEquals(0, limiter.reserve(4, UpstreamPriority.BACKGROUND, 0));
+        assertEquals(-1, limiter.reserve(1, UpstreamPriority.BACKGROUND, 0));
+
+        assertEquals(0, limiter.reserve(2, UpstreamPriority.USER, 0));
+        assertEquals(0, limiter.availablePerSecond());
+    }
+
+    @Test
+    @DisplayName("Should let user calls wait for tokens up to their deadline and hold background calls meanwhile")
+    void testReserve_UserWaitsAhead() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(10, 0, 0.2, now::get);
+        assertEquals(0, limiter.reserve(10, UpstreamPriority.USER, 0));
+
+        assertEquals(-1, limiter.reserve(5, UpstreamPriority.USER, SECOND / 4));
+        assertEquals(SECOND / 2, limiter.reserve(5, UpstreamPriority.USER, SECOND));
+
+        now.addAndGet(SECOND / 2);
+        assertEquals(-1, limiter.reserve(1, UpstreamPriority.BACKGROUND, 0));
+        now.addAndGet(SECOND);
+        assertEquals(0, limiter.reserve(1, UpstreamPriority.BACKGROUND, 0));
+    }
+
+    @Test
+    @DisplayName("Should refuse calls once the daily quota is spent and return refunded tokens")
+    void testReserve_DailyQuota() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(100, 30, 0, now::get);
+        assertEquals(0, limiter.reserve(15, UpstreamPriority.USER, 0));
+        assertEquals(0, limiter.reserve(15, UpstreamPriority.USER, 0));
+
+        now.addAndGet(SECOND);
+        assertEquals(-1, limiter.reserve(15, UpstreamPriority.USER, SECOND));
+
+        limiter.refund(15);
+        assertEquals(0, limiter.reserve(15, UpstreamPriority.USER, 0));
+    }
+
+    @Test
+    @DisplayName("Should hold every call back until a Retry-After pause ends")
+    void testPause() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(0, 0, 0.2, now::get);
+        limiter.pause(2 * SECOND);
+
+        assertEquals(-1, limiter.reserve(1, UpstreamPriority.USER, SECOND));
+        assertEquals(-1, limiter.reserve(1, UpstreamPriority.BACKGROUND, 0));
+        assertEquals(2 * SECOND, limiter.reserve(1, UpstreamPriority.USER, 5 * SECOND));
+
+        now.addAndGet(2 * SECOND);
+        assertEquals(0, limiter.reserve(1, UpstreamPriority.BACKGROUND, 0));
+    }
+}
@@ -0,0 +1,132 @@
+package com.weatherapp.myweatherapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import com.weatherapp.myweatherapp.repository.UpstreamPriority;
+import com.weatherapp.myweatherapp.repository.VisualcrossingRepository;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+
+@DisplayName("CacheWarmer Tests")
+class CacheWarmerTest {
+
+    @Mock
+    private WeatherService weatherService;
+
+    @Mock
+    private ForecastCache forecastCache;
+
+    @Mock
+    private CityPopularity cityPopularity;
+
+    @Mock
+    private CityCanonicalizer cityCanonicalizer;
+
+    @InjectMocks
+    private CacheWarmer cacheWarmer;
+
+    @TempDir
+    Path dir;
+
+    private Path snapshot;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        snapshot = dir.resolve("hot-cities.txt");
+        ReflectionTestUtils.setField(cacheWarmer, "cities", List.of("London", "Paris"));
+        ReflectionTestUtils.setField(cacheWarmer, "snapshotPath", snapshot.toString());
+        ReflectionTestUtils.setField(cacheWarmer, "snapshotSize", 50);
+        ReflectionTestUtils.setField(cacheWarmer, "concurrency", 2);
+        ReflectionTestUtils.setField(cacheWarmer, "timeout", Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should fetch configured and snapshot cities once, skipping fresh ones")
+    void testWarmUp() throws Exception {
+        Files.write(snapshot, List.of("london", "Tokyo", "Oslo"));
+        when(forecastCache.timeToExpiry("paris")).thenReturn(Duration.ofMinutes(5));
+        when(weatherService.refreshForecast(anyString(), eq(UpstreamPriority.BACKGROUND))).thenReturn(new CityInfo());
+        when(weatherService.refreshForecast("Oslo", UpstreamPriority.BACKGROUND))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        int warmed = cacheWarmer.warmUp();
+
+        assertEquals(2, warmed);
+        verify(weatherService).refreshForecast("London", UpstreamPriority.BACKGROUND);
+        verify(weatherService).refreshForecast("Tokyo", UpstreamPriority.BACKGROUND);
+        verify(weatherService).refreshForecast("Oslo", UpstreamPriority.BACKGROUND);
+        verify(weatherService, never()).refreshForecast(eq("Paris"), any());
+        verify(weatherService, never()).refreshForecast(eq("london"), any());
+    }
+
+    @Test
+    @DisplayName("Should save the hottest cities for the next run")
+    void testSaveSnapshot() throws Exception {
+        when(cityPopularity.hottest(1)).thenReturn(List.of(
+                new CityPopularity.HotCity("tokyo", "Tokyo", FetchProfile.FULL, 30),
+                new CityPopularity.HotCity("oslo", "Oslo", FetchProfile.FULL, 12)));
+
+        cacheWarmer.saveSnapshot();
+
+        assertEquals(List.of("Tokyo", "Oslo"), Files.readAllLines(snapshot));
+    }
+
+    @Test
+    @DisplayName("Should serve and skip warming a city stored under its canonical id after a restart")
+    void testWarmUp_AfterRestart() throws Exception {
+        Path file = dir.resolve("forecasts.log");
+        CityInfo london = new CityInfo("London", "London, England, United Kingdom", "Cooler", null, null);
+        try (ForecastStore store = new ForecastStore(file, Duration.ofMinutes(10), new ObjectMapper())) {
+            store.put(CityCanonicalizer.normalize(london.getResolvedAddress()), london);
+        }
+
+        try (ForecastStore store = new ForecastStore(file, Duration.ofMinutes(10), new ObjectMapper())) {
+            ForecastCache cache = new ForecastCache(10, Duration.ofMinutes(10), System::nanoTime);
+            cache.store = store;
+            cache.reloadFromStore();
+            CityCanonicalizer canonicalizer = new CityCanonicalizer();
+            canonicalizer.maxAliases = 100;
+            canonicalizer.store = store;
+            canonicalizer.rebuildFromStore();
+
+            VisualcrossingRepository weatherRepo = mock(VisualcrossingRepository.class);
+            WeatherService service = new WeatherService();
+            service.weatherRepo = weatherRepo;
+            service.forecastCache = cache;
+            service.cityPopularity = new CityPopularity(10, 1024);
+            service.cityCanonicalizer = canonicalizer;
+            service.metrics = mock(WeatherMetrics.class);
+
+            CacheWarmer warmer = new CacheWarmer();
+            warmer.weatherService = service;
+            warmer.forecastCache = cache;
+            warmer.cityPopularity = service.cityPopularity;
+            warmer.cityCanonicalizer = canonicalizer;
+            warmer.cities = List.of(" LONDON ");
+            warmer.snapshotPath = "";
+            warmer.concurrency = 1;
+            warmer.timeout = Duration.ofSeconds(5);
+
+            assertEquals(0, warmer.warmUp());
+            assertEquals("Cooler", service.forecastByCity("London").getDescription());
+            verifyNoInteractions(weatherRepo);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.weatherapp.myweatherapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.weatherapp.myweatherapp.model.CityInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@DisplayName("CityCanonicalizer Tests")
+class CityCanonicalizerTest {
+
+    private CityCanonicalizer canonicalizer;
+
+    @BeforeEach
+    void setUp() {
+        canonicalizer = new CityCanonicalizer();
+        ReflectionTestUtils.setField(canonicalizer, "maxAliases", 4);
+    }
+
+    private static CityInfo resolvedTo(String resolvedAddress) {
+        return new CityInfo("ignored", resolvedAddress, null, null, null);
+    }
+
+    @Test
+    @DisplayName("Should normalize case, whitespace, commas and Unicode forms")
+    void testNormalize() {
+        assertEquals("london", CityCanonicalizer.normalize(" London "));
+        assertEquals("london", CityCanonicalizer.normalize("ＬＯＮＤＯＮ"));
+        assertEquals("new york", CityCanonicalizer.normalize("New \t  York"));
+        assertEquals("london,uk", CityCanonicalizer.normalize("London , UK"));
+        assertEquals("são paulo", CityCanonicalizer.normalize("São Paulo"));
+        assertNull(CityCanonicalizer.normalize(" 　 "));
+        assertNull(CityCanonicalizer.normalize(null));
+    }
+
+    @Test
+    @DisplayName("Should map every spelling to the location it resolved to")
+    void testLearnAndResolve() {
+        String first = canonicalizer.learn("london", resolvedTo("London, England, United Kingdom"));
+        String second = canonicalizer.learn("london,uk", resolvedTo("London, England, United Kingdom"));
+
+        assertEquals("london,england,united kingdom", first);
+        assertSame(first, second);
+        assertSame(first, canonicalizer.resolve("london,uk"));
+        assertNull(canonicalizer.resolve("paris"));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the address and stop learning once the index is full")
+    void testLearn_Bounded() {
+        assertEquals("paris", canonicalizer.learn("paris", new CityInfo("Paris", null, null, null)));
+        canonicalizer.learn("rome", resolvedTo("Rome, Italy"));
+        canonicalizer.learn("oslo", resolvedTo("Oslo, Norway"));
+        int full = canonicalizer.size();
+
+        assertEquals("tokyo,japan", canonicalizer.learn("tokyo", resolvedTo("Tokyo, Japan")));
+        assertNull(canonicalizer.resolve("tokyo"));
+        assertEquals(full, canonicalizer.size());
+    }
+}
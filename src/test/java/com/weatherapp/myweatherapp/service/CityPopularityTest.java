@@ -0,0 +1,87 @@
+package com.weatherapp.myweatherapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("CityPopularity Tests")
+class CityPopularityTest {
+
+    private static void record(CityPopularity popularity, String city, int times) {
+        for (int i = 0; i < times; i++) {
+            popularity.record(city.toLowerCase(), city);
+        }
+    }
+
+    @Test
+    @DisplayName("Should rank the most requested cities first")
+    void testHottest_Ranking() {
+        CityPopularity popularity = new CityPopularity(2, 1024);
+        record(popularity, "London", 10);
+        record(popularity, "Paris", 3);
+        record(popularity, "Tokyo", 6);
+
+        List<CityPopularity.HotCity> hottest = popularity.hottest(1);
+
+        assertEquals(List.of("London", "Tokyo"), hottest.stream().map(CityPopularity.HotCity::city).toList());
+        assertTrue(popularity.estimate("london") >= 10);
+    }
+
+    @Test
+    @DisplayName("Should halve counts on decay and drop cities below the threshold")
+    void testDecay() {
+        CityPopularity popularity = new CityPopularity(10, 1024);
+        record(popularity, "London", 8);
+        record(popularity, "Paris", 1);
+
+        popularity.decay();
+
+        assertEquals(4, popularity.estimate("london"));
+        assertEquals(0, popularity.estimate("paris"));
+        assertEquals(List.of("London"), popularity.hottest(2).stream().map(CityPopularity.HotCity::city).toList());
+    }
+
+    @Test
+    @DisplayName("Should rank each fetch profile of a city separately")
+    void testRecord_PerProfile() {
+        CityPopularity popularity = new CityPopularity(10, 1024);
+        for (int i = 0; i < 5; i++) {
+            popularity.record("london", "London", FetchProfile.DAYLIGHT);
+        }
+        popularity.record("london", "London");
+
+        List<CityPopularity.HotCity> hottest = popularity.hottest(2);
+
+        assertEquals(1, hottest.size());
+        assertEquals(FetchProfile.DAYLIGHT, hottest.get(0).profile());
+        assertEquals("london", hottest.get(0).key());
+        assertEquals(5, popularity.estimate("london", FetchProfile.DAYLIGHT));
+        assertEquals(1, popularity.estimate("london"));
+    }
+
+    @Test
+    @DisplayName("Should admit a city once it beats the coldest ranked city, and keep counting ranked cities")
+    void testRecord_AdmissionThreshold() {
+        CityPopularity popularity = new CityPopularity(2, 1024);
+        record(popularity, "London", 3);
+        record(popularity, "Paris", 2);
+        record(popularity, "Tokyo", 2);
+        assertEquals(List.of("London", "Paris"), popularity.hottest(1).stream().map(CityPopularity.HotCity::city).toList());
+
+        record(popularity, "Tokyo", 1);
+        record(popularity, "London", 2);
+
+        List<CityPopularity.HotCity> hottest = popularity.hottest(1);
+        assertEquals(List.of("London", "Tokyo"), hottest.stream().map(CityPopularity.HotCity::city).toList());
+        assertEquals(5, hottest.get(0).requests());
+    }
+
+    @Test
+    @DisplayName("Should reject a sketch width that is not a power of two")
+    void testConstructor_InvalidWidth() {
+        assertThrows(IllegalArgumentException.class, () -> new CityPopularity(10, 1000));
+    }
+}
@@ -0,0 +1,174 @@
+package com.weatherapp.myweatherapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapp.myweatherapp.model.CityInfo;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("ForecastCache Tests")
+class ForecastCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private ForecastCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ForecastCache(2, Duration.ofMinutes(10), now::get);
+    }
+
+    @Test
+    @DisplayName("Should return cached value and count hits and misses")
+    void testGet_HitAndMiss() {
+        CityInfo london = new CityInfo();
+        cache.put("london", london);
+
+        assertSame(london, cache.get("london"));
+        assertNull(cache.get("paris"));
+
+        ForecastCache.CacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0.5, stats.hitRatio());
+    }
+
+    @Test
+    @DisplayName("Should count a hit but not a miss when probed")
+    void testProbe_CountsHitsOnly() {
+        CityInfo london = new CityInfo();
+        cache.put("london", london);
+
+        assertSame(london, cache.probe("london"));
+        assertNull(cache.probe("paris"));
+
+        ForecastCache.CacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(0, stats.misses());
+    }
+
+    @Test
+    @DisplayName("Should expire entries once the TTL has elapsed")
+    void testGet_Expired() {
+        cache.put("london", new CityInfo());
+
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+
+        assertNull(cache.get("london"));
+        assertEquals(1, cache.stats().expirations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should retain expired entries for stale serving until the retention ends")
+    void testGetStale_Retention() {
+        ForecastCache retaining = new ForecastCache(2, Duration.ofMinutes(10), Duration.ofMinutes(5), now::get);
+        CityInfo london = new CityInfo();
+        retaining.put("london", london);
+
+        assertNull(retaining.getStale("london"));
+        now.addAndGet(Duration.ofMinutes(12).toNanos());
+
+        assertNull(retaining.get("london"));
+        ForecastCache.StaleForecast stale = retaining.getStale("london");
+        assertSame(london, stale.value());
+        assertEquals(Duration.ofMinutes(2), stale.expiredFor());
+
+        now.addAndGet(Duration.ofMinutes(3).toNanos());
+        assertNull(retaining.get("london"));
+        assertNull(retaining.getStale("london"));
+        assertEquals(1, retaining.stats().expirations());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entry when full")
+    void testPut_EvictsLeastRecentlyUsed() {
+        cache.put("london", new CityInfo());
+        cache.put("paris", new CityInfo());
+        cache.get("london");
+        cache.put("tokyo", new CityInfo());
+
+        assertNotNull(cache.get("london"));
+        assertNull(cache.get("paris"));
+        assertNotNull(cache.get("tokyo"));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used entries until a large forecast fits the byte budget")
+    void testPut_EvictsBySize() {
+        CityInfo small = new CityInfo("London", null, null, null);
+        CityInfo timeline = timeline(15);
+        long budget = ForecastCache.weigh("tokyo", timeline) + ForecastCache.weigh("paris", small);
+        ForecastCache sized = new ForecastCache(10, budget, Duration.ofMinutes(10), Duration.ZERO, now::get);
+        sized.put("london", small);
+        sized.put("paris", small);
+
+        sized.put("tokyo", timeline);
+
+        assertNull(sized.get("london"));
+        assertNotNull(sized.get("paris"));
+        assertNotNull(sized.get("tokyo"));
+        assertEquals(1, sized.stats().evictions());
+        assertEquals(budget, sized.weightedSize());
+    }
+
+    @Test
+    @DisplayName("Should weigh a forecast by its days and strings, and release the weight on replace and clear")
+    void testWeigh_TracksContent() {
+        assertTrue(ForecastCache.weigh("tokyo", timeline(15)) > 5 * ForecastCache.weigh("tokyo", timeline(1)));
+
+        cache.put("tokyo", timeline(15));
+        cache.put("tokyo", timeline(1));
+        assertEquals(ForecastCache.weigh("tokyo", timeline(1)), cache.weightedSize());
+
+        cache.clear();
+        assertEquals(0, cache.weightedSize());
+    }
+
+    @Test
+    @DisplayName("Should reload persisted forecasts and consult the store on a miss")
+    void testStore_ReloadAndMiss(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("forecasts.log");
+        try (ForecastStore store = new ForecastStore(file, Duration.ofMinutes(10), new ObjectMapper())) {
+            store.put("london", new CityInfo("London", null, null, null));
+            store.put("paris", new CityInfo("Paris", null, null, null));
+            store.put("tokyo", new CityInfo("Tokyo", null, null, null));
+        }
+
+        try (ForecastStore store = new ForecastStore(file, Duration.ofMinutes(10), new ObjectMapper())) {
+            cache.store = store;
+            cache.reloadFromStore();
+
+            assertEquals(2, cache.size());
+            assertEquals("London", cache.get("london").getAddress());
+            assertEquals(0, cache.stats().misses());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject non-positive capacity")
+    void testConstructor_InvalidCapacity() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ForecastCache(0, Duration.ofMinutes(1), now::get));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ForecastCache(1, 0, Duration.ofMinutes(1), Duration.ZERO, now::get));
+    }
+
+    private static CityInfo timeline(int days) {
+        List<CityInfo.Days> list = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            list.add(new CityInfo.Days("2024-06-" + (10 + i), 15.0, 20.0, 10.0, "Partially cloudy",
+                    "Partly cloudy throughout the day."));
+        }
+        return new CityInfo("Tokyo", "Tokyo, Japan", "Similar temperatures continuing", null, list);
+    }
+}
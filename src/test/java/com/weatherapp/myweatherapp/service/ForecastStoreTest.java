@@ -0,0 +1,120 @@
+package com.weatherapp.myweatherapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapp.myweatherapp.model.CityInfo;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("ForecastStore Tests")
+class ForecastStoreTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        file = dir.resolve("forecasts.log");
+    }
+
+    private ForecastStore open() throws IOException {
+        return new ForecastStore(file, Duration.ofMinutes(10), MAPPER, now::get);
+    }
+
+    private static CityInfo forecast(String address, String conditions) {
+        return new CityInfo(address, "Cooling down",
+                new CityInfo.CurrentConditions(12.5, 18000, 75600, 11.0, 80.0, conditions), List.of());
+    }
+
+    @Test
+    @DisplayName("Should read forecasts written by a previous instance")
+    void testGet_SurvivesReopen() throws IOException {
+        try (ForecastStore store = open()) {
+            store.put("london", forecast("London", "Rain"));
+        }
+        now.addAndGet(Duration.ofMinutes(3).toMillis());
+
+        try (ForecastStore store = open()) {
+            ForecastStore.StoredForecast stored = store.get("london");
+
+            assertNotNull(stored);
+            assertEquals("London", stored.forecast().getAddress());
+            assertEquals("Rain", stored.forecast().getCurrentConditions().conditions());
+            assertEquals(18000, stored.forecast().getCurrentConditions().sunrise());
+            assertEquals(Duration.ofMinutes(3), stored.age());
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve the latest write for a key and drop expired entries")
+    void testGet_LatestAndExpired() throws IOException {
+        try (ForecastStore store = open()) {
+            store.put("paris", forecast("Paris", "Clear"));
+            now.addAndGet(Duration.ofMinutes(8).toMillis());
+            store.put("london", forecast("London", "Rain"));
+            store.put("london", forecast("London", "Overcast"));
+        }
+        now.addAndGet(Duration.ofMinutes(5).toMillis());
+
+        try (ForecastStore store = open()) {
+            assertNull(store.get("paris"));
+            assertEquals("Overcast", store.get("london").forecast().getCurrentConditions().conditions());
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep serving the latest write while superseded lines are compacted")
+    void testPut_Compacts() throws IOException {
+        try (ForecastStore store = open()) {
+            store.put("paris", forecast("Paris", "Clear"));
+            for (int i = 0; i < 20_000; i++) {
+                store.put("london", forecast("London", "Rain " + i));
+            }
+            assertEquals("Rain 19999", store.get("london").forecast().getCurrentConditions().conditions());
+        }
+        assertTrue(Files.size(file) < 1024 * 1024);
+
+        try (ForecastStore store = open()) {
+            assertEquals("Clear", store.get("paris").forecast().getCurrentConditions().conditions());
+            assertEquals("Rain 19999", store.get("london").forecast().getCurrentConditions().conditions());
+            assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should ignore a line cut short by a crash and keep appending")
+    void testOpen_TruncatedTail() throws IOException {
+        try (ForecastStore store = open()) {
+            store.put("london", forecast("London", "Rain"));
+        }
+        Files.writeString(file, "1000000\t\"paris\"\t{\"address\":\"Par", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        try (ForecastStore store = open()) {
+            assertNull(store.get("paris"));
+            store.put("tokyo", forecast("Tokyo", "Clear"));
+        }
+
+        try (ForecastStore store = open()) {
+            assertEquals("London", store.get("london").forecast().getAddress());
+            assertEquals("Tokyo", store.get("tokyo").forecast().getAddress());
+        }
+    }
+}
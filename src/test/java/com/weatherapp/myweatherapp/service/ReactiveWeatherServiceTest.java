@@ -0,0 +1,97 @@
+package com.weatherapp.myweatherapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.repository.VisualcrossingReactiveRepository;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+@DisplayName("ReactiveWeatherService Tests")
+class ReactiveWeatherServiceTest {
+
+    @Mock
+    private VisualcrossingReactiveRepository weatherRepo;
+
+    @Mock
+    private ForecastCache forecastCache;
+
+    @Mock
+    private CityPopularity cityPopularity;
+
+    @Mock
+    private CityCanonicalizer cityCanonicalizer;
+
+    @InjectMocks
+    private ReactiveWeatherService weatherService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @DisplayName("Should serve cached forecast without subscribing upstream")
+    void testForecastByCity_CacheHit() {
+        CityInfo cached = mock(CityInfo.class);
+        when(forecastCache.get("london")).thenReturn(cached);
+
+        assertSame(cached, weatherService.forecastByCity("London").block(Duration.ofSeconds(5)));
+        verify(weatherRepo, never()).getByCity(anyString());
+    }
+
+    @Test
+    @DisplayName("Should populate cache on miss")
+    void testForecastByCity_CacheMiss() {
+        CityInfo mockCityInfo = mock(CityInfo.class);
+        when(weatherRepo.getByCity("London")).thenReturn(Mono.just(mockCityInfo));
+
+        assertSame(mockCityInfo, weatherService.forecastByCity("London").block(Duration.ofSeconds(5)));
+        verify(forecastCache).put("london", mockCityInfo);
+    }
+
+    @Test
+    @DisplayName("Should share one upstream call between concurrent subscribers")
+    void testForecastByCity_Coalesced() {
+        CityInfo mockCityInfo = mock(CityInfo.class);
+        Sinks.One<CityInfo> upstream = Sinks.one();
+        when(weatherRepo.getByCity(anyString())).thenReturn(upstream.asMono());
+
+        Mono<CityInfo> leader = weatherService.forecastByCity("London").cache();
+        Mono<CityInfo> follower = weatherService.forecastByCity("london").cache();
+        leader.subscribe();
+        follower.subscribe();
+        upstream.tryEmitValue(mockCityInfo);
+
+        assertSame(mockCityInfo, leader.block(Duration.ofSeconds(5)));
+        assertSame(mockCityInfo, follower.block(Duration.ofSeconds(5)));
+        verify(weatherRepo, times(1)).getByCity(anyString());
+    }
+
+    @Test
+    @DisplayName("Should keep a shared upstream call going when the first subscriber cancels")
+    void testForecastByCity_LeaderCancels() {
+        CityInfo mockCityInfo = mock(CityInfo.class);
+        Sinks.One<CityInfo> upstream = Sinks.one();
+        when(weatherRepo.getByCity(anyString())).thenReturn(upstream.asMono());
+
+        Disposable leader = weatherService.forecastByCity("London").subscribe();
+        Mono<CityInfo> follower = weatherService.forecastByCity("london").cache();
+        follower.subscribe();
+        leader.dispose();
+        upstream.tryEmitValue(mockCityInfo);
+
+        assertSame(mockCityInfo, follower.block(Duration.ofSeconds(5)));
+        verify(forecastCache).put("london", mockCityInfo);
+        verify(weatherRepo, times(1)).getByCity(anyString());
+    }
+}
@@ -0,0 +1,124 @@
+package com.weatherapp.myweatherapp.service;
+
+import static org.mockito.Mockito.*;
+
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import com.weatherapp.myweatherapp.repository.UpstreamPriority;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@DisplayName("RefreshAheadScheduler Tests")
+class RefreshAheadSchedulerTest {
+
+    @Mock
+    private WeatherService weatherService;
+
+    @Mock
+    private ForecastCache forecastCache;
+
+    @Mock
+    private CityPopularity cityPopularity;
+
+    @InjectMocks
+    private RefreshAheadScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(scheduler, "interval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(scheduler, "halfLife", Duration.ofHours(1));
+        ReflectionTestUtils.setField(scheduler, "window", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(scheduler, "jitter", Duration.ofMillis(20));
+        ReflectionTestUtils.setField(scheduler, "minRequests", 5L);
+        ReflectionTestUtils.setField(scheduler, "concurrency", 1);
+        scheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    @DisplayName("Should refresh hot cities that are about to expire or not cached")
+    void testRefreshHotCities() {
+        when(cityPopularity.hottest(5)).thenReturn(List.of(
+                new CityPopularity.HotCity("london", "London", FetchProfile.FULL, 40),
+                new CityPopularity.HotCity("paris", "Paris", FetchProfile.FULL, 20),
+                new CityPopularity.HotCity("tokyo", "Tokyo", FetchProfile.FULL, 10)));
+        when(forecastCache.timeToExpiry("london")).thenReturn(Duration.ofSeconds(30));
+        when(forecastCache.timeToExpiry("paris")).thenReturn(Duration.ofMinutes(8));
+        when(forecastCache.timeToExpiry("tokyo")).thenReturn(null);
+
+        scheduler.refreshHotCities();
+
+        verify(weatherService, timeout(5000)).refreshForecast("London", FetchProfile.FULL, UpstreamPriority.BACKGROUND);
+        verify(weatherService, timeout(5000)).refreshForecast("Tokyo", FetchProfile.FULL, UpstreamPriority.BACKGROUND);
+        verify(weatherService, never()).refreshForecast(eq("Paris"), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should refresh a city with the profile its requests asked for, unless its full forecast is fresh")
+    void testRefreshHotCities_RequestedProfile() {
+        when(cityPopularity.hottest(5)).thenReturn(List.of(
+                new CityPopularity.HotCity("london", "London", FetchProfile.DAYLIGHT, 40),
+                new CityPopularity.HotCity("paris", "Paris", FetchProfile.RAIN, 20)));
+        when(forecastCache.timeToExpiry("london#daylight")).thenReturn(Duration.ofSeconds(30));
+        when(forecastCache.timeToExpiry("paris#rain")).thenReturn(null);
+        when(forecastCache.timeToExpiry("paris")).thenReturn(Duration.ofMinutes(8));
+
+        scheduler.refreshHotCities();
+
+        verify(weatherService, timeout(5000))
+                .refreshForecast("London", FetchProfile.DAYLIGHT, UpstreamPriority.BACKGROUND);
+        verify(weatherService, never()).refreshForecast(eq("London"), eq(FetchProfile.FULL), any());
+        verify(weatherService, never()).refreshForecast(eq("Paris"), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should stop refreshing once the daily record budget is spent")
+    void testRefreshHotCities_RecordBudget() {
+        scheduler.stop();
+        ReflectionTestUtils.setField(scheduler, "recordsPerDay", 240);
+        scheduler.start();
+        when(cityPopularity.hottest(5)).thenReturn(List.of(
+                new CityPopularity.HotCity("london", "London", FetchProfile.FULL, 40),
+                new CityPopularity.HotCity("paris", "Paris", FetchProfile.FULL, 20)));
+
+        scheduler.refreshHotCities();
+
+        verify(weatherService, timeout(5000)).refreshForecast("London", FetchProfile.FULL, UpstreamPriority.BACKGROUND);
+        verify(weatherService, after(200).never()).refreshForecast(eq("Paris"), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should back off a city whose refresh failed until its forecast is written again")
+    void testRefreshHotCities_BacksOffFailures() {
+        when(cityPopularity.hottest(5)).thenReturn(List.of(
+                new CityPopularity.HotCity("tokyo", "Tokyo", FetchProfile.FULL, 10)));
+        when(forecastCache.timeToExpiry("tokyo")).thenReturn(null);
+        doThrow(new IllegalStateException("404"))
+                .when(weatherService).refreshForecast("Tokyo", FetchProfile.FULL, UpstreamPriority.BACKGROUND);
+
+        scheduler.refreshHotCities();
+        verify(weatherService, timeout(5000)).refreshForecast("Tokyo", FetchProfile.FULL, UpstreamPriority.BACKGROUND);
+        // Let the failed refresh finish and release the city
+        verify(weatherService, after(200).times(1)).refreshForecast(eq("Tokyo"), any(), any());
+
+        scheduler.refreshHotCities();
+        verify(weatherService, after(200).times(1)).refreshForecast(eq("Tokyo"), any(), any());
+
+        // A user request caches Tokyo again, and it later comes due
+        when(forecastCache.timeToExpiry("tokyo")).thenReturn(Duration.ofSeconds(30));
+        scheduler.refreshHotCities();
+        verify(weatherService, timeout(5000).times(2)).refreshForecast(eq("Tokyo"), any(), any());
+    }
+}
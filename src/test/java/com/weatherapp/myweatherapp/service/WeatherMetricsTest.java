@@ -0,0 +1,68 @@
+package com.weatherapp.myweatherapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("WeatherMetrics Tests")
+class WeatherMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ForecastCache cache = new ForecastCache(10, Duration.ofMinutes(10), System::nanoTime);
+    private final WeatherMetrics metrics = new WeatherMetrics(registry, cache);
+
+    @Test
+    @DisplayName("Should time lookups by profile and source")
+    void testRecordLookup() {
+        metrics.recordLookup(FetchProfile.RAIN, WeatherMetrics.Lookup.CACHE, System.nanoTime());
+        metrics.recordLookup(FetchProfile.RAIN, WeatherMetrics.Lookup.CACHE, System.nanoTime());
+        metrics.recordLookup(FetchProfile.FULL, WeatherMetrics.Lookup.UPSTREAM, System.nanoTime() - 5_000_000);
+
+        FunctionTimer rainHits = registry.get("weather.lookups.cached").tag("profile", "rain").functionTimer();
+        Timer fullFetches = registry.get("weather.lookups").tags("profile", "full", "source", "upstream").timer();
+        assertEquals(2, rainHits.count());
+        assertEquals(0, registry.get("weather.lookups.cached").tag("profile", "full").functionTimer().count());
+        assertEquals(1, fullFetches.count());
+        assertTrue(fullFetches.totalTime(TimeUnit.MILLISECONDS) >= 5);
+        assertEquals(0, registry.get("weather.lookups").tags("profile", "full", "source", "error").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should track active repository fetches and time them by outcome")
+    void testFetches() {
+        metrics.fetchStarted();
+        metrics.fetchStarted();
+        assertEquals(2, registry.get("weather.repository.fetches.active").gauge().value());
+
+        metrics.fetchFinished(FetchProfile.DAYLIGHT, true, System.nanoTime());
+        metrics.fetchFinished(FetchProfile.DAYLIGHT, false, System.nanoTime());
+
+        assertEquals(0, registry.get("weather.repository.fetches.active").gauge().value());
+        assertEquals(1, registry.get("weather.repository.fetches")
+                .tags("profile", "daylight", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("weather.repository.fetches")
+                .tags("profile", "daylight", "outcome", "error").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should expose cache hits, misses, size and hit ratio")
+    void testCacheMeters() {
+        cache.put("london", new CityInfo());
+        cache.get("london");
+        cache.get("london");
+        cache.get("paris");
+
+        assertEquals(2, registry.get("weather.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("weather.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("weather.cache.size").gauge().value());
+        assertEquals(2.0 / 3, registry.get("weather.cache.hit.ratio").gauge().value(), 1e-9);
+    }
+}
@@ -4,6 +4,9 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import com.weatherapp.myweatherapp.model.CityInfo;
+import com.weatherapp.myweatherapp.model.FetchProfile;
+import com.weatherapp.myweatherapp.repository.UpstreamUnavailableException;
+import com.weatherapp.myweatherapp.repository.UpstreamPriority;
 import com.weatherapp.myweatherapp.repository.VisualcrossingRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,9 +15,21 @@ import org.junit.jupiter.api.Nested;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.http.HttpStatus;
 import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @DisplayName("WeatherService Tests")
 class WeatherServiceTest {
@@ -22,6 +37,18 @@ class WeatherServiceTest {
     @Mock
     private VisualcrossingRepository weatherRepo;
 
+    @Mock
+    private ForecastCache forecastCache;
+
+    @Mock
+    private CityPopularity cityPopularity;
+
+    @Mock
+    private CityCanonicalizer cityCanonicalizer;
+
+    @Mock
+    private WeatherMetrics metrics;
+
     @InjectMocks
     private WeatherService weatherService;
 
@@ -305,4 +332,363 @@ class WeatherServiceTest {
             verify(weatherRepo).getByCity("london");
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Cache Tests")
+    class CacheTests {
+        @Test
+        @DisplayName("Should serve cached forecast without calling the repository")
+        void testForecastByCity_CacheHit() {
+            CityInfo cached = mock(CityInfo.class);
+            when(forecastCache.get("london")).thenReturn(cached);
+
+            CityInfo result = weatherService.forecastByCity(" London ");
+
+            assertSame(cached, result);
+            verify(weatherRepo, never()).getByCity(anyString());
+        }
+
+        @Test
+        @DisplayName("Should populate cache on miss using normalized key")
+        void testForecastByCity_CacheMissPopulates() {
+            CityInfo mockCityInfo = mock(CityInfo.class);
+            when(weatherRepo.getByCity("LONDON")).thenReturn(mockCityInfo);
+
+            CityInfo result = weatherService.forecastByCity("LONDON");
+
+            assertSame(mockCityInfo, result);
+            verify(forecastCache).put("london", mockCityInfo);
+        }
+
+        @Test
+        @DisplayName("Should not cache failed lookups")
+        void testForecastByCity_ErrorNotCached() {
+            when(weatherRepo.getByCity("London"))
+                    .thenThrow(new HttpClientErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+            assertThrows(HttpClientErrorException.class, () -> weatherService.forecastByCity("London"));
+            verify(forecastCache, never()).put(anyString(), any());
+        }
+
+        @Test
+        @DisplayName("Should serve an alias from the entry of its canonical location")
+        void testForecastByCity_AliasHit() {
+            CityInfo cached = mock(CityInfo.class);
+            when(cityCanonicalizer.resolve("london,uk")).thenReturn("london,england,united kingdom");
+            when(forecastCache.get("london,england,united kingdom")).thenReturn(cached);
+
+            CityInfo result = weatherService.forecastByCity("London, UK");
+
+            assertSame(cached, result);
+            verify(weatherRepo, never()).getByCity(anyString());
+        }
+
+        @Test
+        @DisplayName("Should cache a fetched forecast under the location it resolved to")
+        void testForecastByCity_LearnsCanonicalKey() {
+            CityInfo mockCityInfo = mock(CityInfo.class);
+            when(weatherRepo.getByCity("Paris")).thenReturn(mockCityInfo);
+            when(cityCanonicalizer.learn("paris", mockCityInfo)).thenReturn("paris,ile-de-france,france");
+
+            weatherService.forecastByCity("Paris");
+
+            verify(forecastCache).put("paris,ile-de-france,france", mockCityInfo);
+        }
+
+        @Test
+        @DisplayName("Should record a cached forecast's hit and popularity once, and nothing for a miss")
+        void testCachedForecast_RecordsHitsOnly() {
+            CityInfo cached = mock(CityInfo.class);
+            when(forecastCache.probe("london")).thenReturn(cached);
+
+            assertSame(cached, weatherService.cachedForecast("London"));
+            assertNull(weatherService.cachedForecast("Paris"));
+
+            verify(cityPopularity).record("london", "London");
+            verify(cityPopularity, never()).record(eq("paris"), anyString());
+            verify(forecastCache, never()).get(anyString());
+        }
+
+        @Test
+        @DisplayName("Should bypass cache for blank city names")
+        void testForecastByCity_BlankBypassesCache() {
+            weatherService.forecastByCity("   ");
+
+            verifyNoInteractions(forecastCache);
+            verify(weatherRepo).getByCity("   ");
+        }
+    }
+
+    @Nested
+    @DisplayName("Fetch Profile Tests")
+    class FetchProfileTests {
+        @Test
+        @DisplayName("Should fetch and cache a narrow profile under its own key")
+        void testForecastByCity_NarrowProfile() {
+            CityInfo daylight = mock(CityInfo.class);
+            when(weatherRepo.getByCity("London", FetchProfile.DAYLIGHT)).thenReturn(daylight);
+
+            CityInfo result = weatherService.forecastByCity("London", FetchProfile.DAYLIGHT);
+
+            assertSame(daylight, result);
+            verify(forecastCache).put("london#daylight", daylight);
+            verify(weatherRepo, never()).getByCity(anyString());
+        }
+
+        @Test
+        @DisplayName("Should serve a narrow profile from a cached full forecast")
+        void testForecastByCity_FullCoversNarrow() {
+            CityInfo full = mock(CityInfo.class);
+            when(forecastCache.get("london")).thenReturn(full);
+
+            CityInfo result = weatherService.forecastByCity("London", FetchProfile.RAIN);
+
+            assertSame(full, result);
+            verifyNoInteractions(weatherRepo);
+        }
+
+        @Test
+        @DisplayName("Should count a narrow lookup answered by the full forecast as a single hit")
+        void testCachedForProfile_SingleOutcome() {
+            ForecastCache cache = new ForecastCache(10, Duration.ofMinutes(10), System::nanoTime);
+            CityInfo full = new CityInfo();
+            cache.put("london", full);
+
+            assertSame(full, WeatherService.cachedForProfile(cache, "london", FetchProfile.DAYLIGHT));
+            assertNull(WeatherService.cachedForProfile(cache, "paris", FetchProfile.RAIN));
+
+            assertEquals(1, cache.stats().hits());
+            assertEquals(1, cache.stats().misses());
+        }
+
+        @Test
+        @DisplayName("Should not serve a full forecast from a cached narrow profile")
+        void testForecastByCity_NarrowDoesNotCoverFull() {
+            CityInfo full = mock(CityInfo.class);
+            when(forecastCache.probe("london#rain")).thenReturn(mock(CityInfo.class));
+            when(weatherRepo.getByCity("London")).thenReturn(full);
+
+            CityInfo result = weatherService.forecastByCity("London");
+
+            assertSame(full, result);
+            verify(weatherRepo).getByCity("London");
+        }
+    }
+
+    @Nested
+    @DisplayName("Stale Serving Tests")
+    class StaleServingTests {
+        private final List<Runnable> refreshes = new ArrayList<>();
+
+        @BeforeEach
+        void setUp() {
+            ReflectionTestUtils.setField(weatherService, "refreshExecutor", (Executor) refreshes::add);
+            ReflectionTestUtils.setField(weatherService, "staleWhileRevalidate", Duration.ofSeconds(30));
+            ReflectionTestUtils.setField(weatherService, "staleIfError", Duration.ofMinutes(10));
+        }
+
+        @Test
+        @DisplayName("Should serve a recently expired forecast and refresh it in the background")
+        void testForecastByCity_StaleWhileRevalidate() {
+            CityInfo stale = mock(CityInfo.class);
+            CityInfo fresh = mock(CityInfo.class);
+            when(forecastCache.getStale("london"))
+                    .thenReturn(new ForecastCache.StaleForecast(stale, Duration.ofSeconds(5)));
+            when(weatherRepo.getByCity("London", FetchProfile.FULL, UpstreamPriority.BACKGROUND)).thenReturn(fresh);
+
+            CityInfo result = weatherService.forecastByCity("London");
+
+            assertSame(stale, result);
+            verify(weatherRepo, never()).getByCity(anyString());
+            assertEquals(1, refreshes.size());
+            refreshes.get(0).run();
+            verify(forecastCache).put("london", fresh);
+        }
+
+        @Test
+        @DisplayName("Should serve a stale forecast without refreshing on the request thread when refreshes are saturated")
+        void testForecastByCity_RefreshExecutorSaturated() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            ThreadPoolExecutor saturated = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), new ThreadPoolExecutor.AbortPolicy());
+            try {
+                saturated.execute(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                ReflectionTestUtils.setField(weatherService, "refreshExecutor", saturated);
+                CityInfo stale = mock(CityInfo.class);
+                when(forecastCache.getStale("london"))
+                        .thenReturn(new ForecastCache.StaleForecast(stale, Duration.ofSeconds(5)));
+
+                CityInfo result = weatherService.forecastByCity("London");
+
+                assertSame(stale, result);
+                verifyNoInteractions(weatherRepo);
+                assertEquals(0, saturated.getQueue().size());
+            } finally {
+                release.countDown();
+                saturated.shutdown();
+            }
+        }
+
+        @Test
+        @DisplayName("Should serve an expired forecast when Visual Crossing is failing")
+        void testForecastByCity_StaleIfError() {
+            CityInfo stale = mock(CityInfo.class);
+            when(forecastCache.getStale("london"))
+                    .thenReturn(new ForecastCache.StaleForecast(stale, Duration.ofMinutes(2)));
+            when(weatherRepo.getByCity("London"))
+                    .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+            CityInfo result = weatherService.forecastByCity("London");
+
+            assertSame(stale, result);
+            assertTrue(refreshes.isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should serve an expired forecast when the circuit breaker refuses the call")
+        void testForecastByCity_StaleWhenCircuitOpen() {
+            CityInfo stale = mock(CityInfo.class);
+            when(forecastCache.getStale("london"))
+                    .thenReturn(new ForecastCache.StaleForecast(stale, Duration.ofMinutes(2)));
+            when(weatherRepo.getByCity("London"))
+                    .thenThrow(new UpstreamUnavailableException("Visual Crossing circuit breaker is open"));
+
+            assertSame(stale, weatherService.forecastByCity("London"));
+        }
+
+        @Test
+        @DisplayName("Should not mask client errors or forecasts past the stale-if-error window")
+        void testForecastByCity_StaleNotServed() {
+            when(forecastCache.getStale("london"))
+                    .thenReturn(new ForecastCache.StaleForecast(mock(CityInfo.class), Duration.ofMinutes(2)));
+            when(forecastCache.getStale("paris"))
+                    .thenReturn(new ForecastCache.StaleForecast(mock(CityInfo.class), Duration.ofMinutes(20)));
+            when(weatherRepo.getByCity("London")).thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+            when(weatherRepo.getByCity("Paris"))
+                    .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+            assertThrows(HttpClientErrorException.class, () -> weatherService.forecastByCity("London"));
+            assertThrows(HttpServerErrorException.class, () -> weatherService.forecastByCity("Paris"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Metrics Tests")
+    class MetricsTests {
+        @Test
+        @DisplayName("Should record a cache hit without a repository fetch")
+        void testForecastByCity_RecordsCacheHit() {
+            when(forecastCache.get("london")).thenReturn(mock(CityInfo.class));
+
+            weatherService.forecastByCity("London");
+
+            verify(metrics).recordLookup(eq(FetchProfile.FULL), eq(WeatherMetrics.Lookup.CACHE), anyLong());
+            verify(metrics, never()).fetchStarted();
+        }
+
+        @Test
+        @DisplayName("Should record an upstream lookup and its repository fetch")
+        void testForecastByCity_RecordsUpstreamFetch() {
+            when(weatherRepo.getByCity("London", FetchProfile.RAIN)).thenReturn(mock(CityInfo.class));
+
+            weatherService.forecastByCity("London", FetchProfile.RAIN);
+
+            verify(metrics).fetchStarted();
+            verify(metrics).fetchFinished(eq(FetchProfile.RAIN), eq(true), anyLong());
+            verify(metrics).recordLookup(eq(FetchProfile.RAIN), eq(WeatherMetrics.Lookup.UPSTREAM), anyLong());
+        }
+
+        @Test
+        @DisplayName("Should record a failed fetch answered with a stale forecast")
+        void testForecastByCity_RecordsStaleIfError() {
+            ReflectionTestUtils.setField(weatherService, "staleWhileRevalidate", Duration.ofSeconds(30));
+            ReflectionTestUtils.setField(weatherService, "staleIfError", Duration.ofMinutes(10));
+            when(forecastCache.getStale("london"))
+                    .thenReturn(new ForecastCache.StaleForecast(mock(CityInfo.class), Duration.ofMinutes(2)));
+            when(weatherRepo.getByCity("London"))
+                    .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+            weatherService.forecastByCity("London");
+
+            verify(metrics).fetchFinished(eq(FetchProfile.FULL), eq(false), anyLong());
+            verify(metrics).recordLookup(eq(FetchProfile.FULL), eq(WeatherMetrics.Lookup.STALE), anyLong());
+        }
+    }
+
+    @Nested
+    @DisplayName("Request Coalescing Tests")
+    class RequestCoalescingTests {
+        @Test
+        @DisplayName("Should share one upstream call between concurrent callers")
+        void testForecastByCity_ConcurrentCallsCoalesced() throws Exception {
+            CityInfo mockCityInfo = mock(CityInfo.class);
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            when(weatherRepo.getByCity("London")).thenAnswer(invocation -> {
+                entered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return mockCityInfo;
+            });
+
+            CompletableFuture<CityInfo> leader = CompletableFuture.supplyAsync(
+                    () -> weatherService.forecastByCity("London"));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            CompletableFuture<CityInfo> follower = new CompletableFuture<>();
+            Thread followerThread = new Thread(() -> follower.complete(weatherService.forecastByCity("london")));
+            followerThread.start();
+            awaitWaiting(followerThread);
+            release.countDown();
+
+            assertSame(mockCityInfo, leader.get(5, TimeUnit.SECONDS));
+            assertSame(mockCityInfo, follower.get(5, TimeUnit.SECONDS));
+            verify(weatherRepo, times(1)).getByCity(anyString());
+        }
+
+        @Test
+        @DisplayName("Should propagate the shared upstream error to every caller")
+        void testForecastByCity_ConcurrentCallsShareError() throws Exception {
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            when(weatherRepo.getByCity("London")).thenAnswer(invocation -> {
+                entered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                throw new HttpClientErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            });
+
+            CompletableFuture<CityInfo> leader = CompletableFuture.supplyAsync(
+                    () -> weatherService.forecastByCity("London"));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            CompletableFuture<CityInfo> follower = new CompletableFuture<>();
+            Thread followerThread = new Thread(() -> {
+                try {
+                    follower.complete(weatherService.forecastByCity("London"));
+                } catch (RuntimeException e) {
+                    follower.completeExceptionally(e);
+                }
+            });
+            followerThread.start();
+            awaitWaiting(followerThread);
+            release.countDown();
+
+            ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            ExecutionException followerError = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(HttpClientErrorException.class, leaderError.getCause());
+            assertInstanceOf(HttpClientErrorException.class, followerError.getCause());
+            verify(weatherRepo, times(1)).getByCity("London");
+        }
+
+        private void awaitWaiting(Thread thread) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(Thread.State.WAITING, thread.getState());
+        }
+    }
+}